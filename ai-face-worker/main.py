@@ -2,6 +2,7 @@ import os
 import json
 import signal
 import boto3
+from botocore.exceptions import ClientError
 from PIL import Image
 from psycopg2 import pool
 from deepface import DeepFace
@@ -11,6 +12,8 @@ MAX_IMAGE_PIXELS = 25_000_000
 Image.MAX_IMAGE_PIXELS = MAX_IMAGE_PIXELS
 
 DEEPFACE_TIMEOUT_SECS = 300
+# Extended before each photo of a message, so a batch never outlives its visibility timeout.
+PHOTO_VISIBILITY_TIMEOUT_SECS = DEEPFACE_TIMEOUT_SECS + 60
 
 class DeepFaceTimeout(Exception):
     pass
@@ -57,25 +60,68 @@ db_pool = pool.SimpleConnectionPool(
 )
 print("[+] Database connection pool initialized (1-2 connections)")
 
-def process_message(message):
-    body = json.loads(message['Body'])
-    photo_id = body['photoId']
-    storage_url = body['storageUrl']
-    
-    print(f"\n[+] Processing Photo ID: {photo_id}")
+def _decode_photos(body):
+    if 'version' not in body:
+        return [body]
+    if body['version'] != 2:
+        raise ValueError(f"Unsupported photo message version: {body['version']}")
+    return body['photos']
 
+def _pending_photo_ids(photo_ids):
     conn = db_pool.getconn()
     try:
         cur = conn.cursor()
-        cur.execute("SELECT id FROM photos WHERE id = %s", (photo_id,))
-        if cur.fetchone() is None:
-            print(f"    -> Skipping: Photo {photo_id} no longer exists in database.")
-            cur.close()
-            return
+        cur.execute(
+            "SELECT id::text FROM photos WHERE id = ANY(%s::uuid[]) AND NOT processed",
+            (photo_ids,)
+        )
+        pending = {row[0] for row in cur.fetchall()}
         cur.close()
+        return pending
     finally:
         db_pool.putconn(conn)
-    
+
+def _extend_visibility(message):
+    try:
+        sqs.change_message_visibility(
+            QueueUrl=QUEUE_URL,
+            ReceiptHandle=message['ReceiptHandle'],
+            VisibilityTimeout=PHOTO_VISIBILITY_TIMEOUT_SECS
+        )
+    except Exception as e:
+        print(f"    -> Could not extend message visibility: {e}")
+
+def _save_faces(photo_id, valid_faces):
+    conn = db_pool.getconn()
+    cur = conn.cursor()
+    try:
+        # Claiming the photo first makes a redelivered message that races this one a no-op.
+        cur.execute("UPDATE photos SET processed = True WHERE id = %s AND NOT processed", (photo_id,))
+        if cur.rowcount == 0:
+            conn.rollback()
+            print("    -> Skipping save: photo was already processed")
+            return
+
+        for face in valid_faces:
+            embedding_str = f"[{','.join(map(str, face['embedding']))}]"
+            area = face['facial_area']
+            box_area = [int(area['x']), int(area['y']), int(area['w']), int(area['h'])]
+
+            cur.execute(
+                "INSERT INTO photo_embeddings (photo_id, embedding, box_area) VALUES (%s, %s, %s)",
+                (photo_id, embedding_str, box_area)
+            )
+        conn.commit()
+        print(f"    -> Saved {len(valid_faces)} face(s) to Database")
+    except Exception as e:
+        print(f"    -> Database Error: {e}")
+        conn.rollback()
+        raise e
+    finally:
+        cur.close()
+        db_pool.putconn(conn)
+
+def _detect_faces(photo_id, storage_url):
     local_path = f"temp_{photo_id}.jpg"
     try:
         s3.download_file(BUCKET_NAME, storage_url, local_path)
@@ -83,15 +129,7 @@ def process_message(message):
 
         if not _validate_image_dimensions(local_path):
             print(f"    -> Skipping photo {photo_id}: image exceeds pixel limit")
-            conn = db_pool.getconn()
-            try:
-                cur = conn.cursor()
-                cur.execute("UPDATE photos SET processed = True WHERE id = %s", (photo_id,))
-                conn.commit()
-                cur.close()
-            finally:
-                db_pool.putconn(conn)
-            return
+            return []
 
         try:
             signal.signal(signal.SIGALRM, _timeout_handler)
@@ -114,35 +152,41 @@ def process_message(message):
             
         valid_faces = [f for f in faces if f.get('facial_area', {}).get('w', 0) > 0]
         print(f"    -> Found {len(valid_faces)} faces")
-        
-        conn = db_pool.getconn()
-        cur = conn.cursor()
-        
-        try:
-            for face in valid_faces:
-                embedding_str = f"[{','.join(map(str, face['embedding']))}]"
-                box_area_json = json.dumps(face['facial_area'])
-                
-                cur.execute(
-                    "INSERT INTO photo_embeddings (photo_id, embedding, box_area) VALUES (%s, %s, %s)",
-                    (photo_id, embedding_str, box_area_json)
-                )
-                
-            cur.execute("UPDATE photos SET processed = True WHERE id = %s", (photo_id,))
-            conn.commit()
-            print("    -> Saved to Database")
-            
-        except Exception as e:
-            print(f"    -> Database Error: {e}")
-            conn.rollback()
-            raise e
-        finally:
-            cur.close()
-            db_pool.putconn(conn)
+        return valid_faces
     finally:
         if os.path.exists(local_path):
             os.remove(local_path)
 
+def process_message(message):
+    body = json.loads(message['Body'])
+    photos = _decode_photos(body)
+
+    pending = _pending_photo_ids([p['photoId'] for p in photos])
+    failed = []
+    for photo in photos:
+        photo_id = photo['photoId']
+        print(f"\n[+] Processing Photo ID: {photo_id}")
+        if photo_id not in pending:
+            print(f"    -> Skipping: Photo {photo_id} was deleted or is already processed.")
+            continue
+
+        _extend_visibility(message)
+        try:
+            _save_faces(photo_id, _detect_faces(photo_id, photo['storageUrl']))
+        except ClientError as e:
+            if e.response.get('Error', {}).get('Code') in ('404', 'NoSuchKey'):
+                print(f"    -> Skipping: object for photo {photo_id} no longer exists in S3.")
+            else:
+                print(f"    -> Failed photo {photo_id}: {e}")
+                failed.append(photo_id)
+        except Exception as e:
+            print(f"    -> Failed photo {photo_id}: {e}")
+            failed.append(photo_id)
+
+    # Photos saved above are marked processed, so a redelivery only retries the failed ones.
+    if failed:
+        raise RuntimeError(f"{len(failed)} of {len(photos)} photo(s) failed; message will be retried")
+
 def main():
     print("Starting GrabPic AI Worker... Listening for SQS messages.")
     while True:
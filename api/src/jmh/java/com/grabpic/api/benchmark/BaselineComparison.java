@@ -0,0 +1,101 @@
+package com.grabpic.api.benchmark;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH result with a baseline recorded on the same machine. Absolute scores differ
+ * too much between machines to be committed, so the baseline is a local file: the first run,
+ * or a run with {@code update}, saves it. A benchmark regresses when it is slower by more than
+ * the tolerance and the two runs' error margins do not overlap.
+ */
+public class BaselineComparison {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BaselineComparison <result.json> <baseline.json> [tolerance] [update]");
+			System.exit(2);
+		}
+
+		Path resultFile = Path.of(args[0]);
+		Path baselineFile = Path.of(args[1]);
+		double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+		boolean update = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+		if (update || !Files.exists(baselineFile)) {
+			Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+			Files.copy(resultFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+			System.out.printf("Saved %s as the baseline for later runs on this machine%n", baselineFile);
+			return;
+		}
+
+		JsonMapper mapper = JsonMapper.builder().build();
+		JsonNode resultRoot = mapper.readTree(resultFile.toFile());
+		JsonNode baselineRoot = mapper.readTree(baselineFile.toFile());
+		String resultJvm = jvm(resultRoot);
+		String baselineJvm = jvm(baselineRoot);
+		if (!resultJvm.equals(baselineJvm)) {
+			System.out.printf("Baseline was recorded on %s, this run on %s; not comparing. "
+					+ "Run with -Djmh.updateBaseline=true to replace it.%n", baselineJvm, resultJvm);
+			return;
+		}
+
+		Map<String, Score> results = scores(resultRoot);
+		Map<String, Score> baseline = scores(baselineRoot);
+
+		int regressions = 0;
+		for (Map.Entry<String, Score> entry : results.entrySet()) {
+			Score actual = entry.getValue();
+			Score expected = baseline.get(entry.getKey());
+			if (expected == null) {
+				System.out.printf("NEW         %s %.3f%n", entry.getKey(), actual.score());
+				continue;
+			}
+
+			double change = (actual.score() - expected.score()) / expected.score();
+			boolean beyondNoise = actual.score() - actual.error() > expected.score() + expected.error();
+			boolean regressed = change > tolerance && beyondNoise;
+			if (regressed) regressions++;
+			System.out.printf("%-11s %s %.3f +/- %.3f -> %.3f +/- %.3f (%+.1f%%)%n",
+					regressed ? "REGRESSED" : "OK", entry.getKey(), expected.score(), expected.error(),
+					actual.score(), actual.error(), change * 100);
+		}
+
+		if (regressions > 0) {
+			System.err.printf("%d benchmark(s) slower than baseline by more than %.0f%%%n",
+					regressions, tolerance * 100);
+			System.exit(1);
+		}
+	}
+
+	private static String jvm(JsonNode root) {
+		if (root.isEmpty()) return "";
+		JsonNode run = root.get(0);
+		return run.get("vmName").asString() + " " + run.get("vmVersion").asString();
+	}
+
+	private static Map<String, Score> scores(JsonNode root) {
+		Map<String, Score> scores = new LinkedHashMap<>();
+		for (JsonNode run : root) {
+			StringBuilder key = new StringBuilder(run.get("benchmark").asString());
+			JsonNode params = run.get("params");
+			if (params != null) {
+				params.properties().forEach(p -> key.append(' ').append(p.getKey()).append('=').append(p.getValue().asString()));
+			}
+			JsonNode metric = run.get("primaryMetric");
+			// JMH writes "NaN" when there were too few iterations to estimate the error.
+			JsonNode error = metric.get("scoreError");
+			scores.put(key.toString(), new Score(metric.get("score").asDouble(), error.isNumber() ? error.asDouble() : 0));
+		}
+		return scores;
+	}
+
+	private record Score(double score, double error) {}
+}
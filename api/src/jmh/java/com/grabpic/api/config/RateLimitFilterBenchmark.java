@@ -0,0 +1,66 @@
+package com.grabpic.api.config;
+
+import com.grabpic.api.service.HeavyHitters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+	@Param({"/api/albums", "/api/albums/00000000-0000-0000-0000-000000000000/guest/details"})
+	public String path;
+
+	private RateLimitFilter filter;
+
+	@Setup
+	public void setUp() {
+		filter = new RateLimitFilter(new StubRedisTemplate(),
+				new DependencyGuards(new StandardEnvironment()),
+				new SimpleMeterRegistry(),
+				new HeavyHitters(true, 20, 2048, Duration.ofMinutes(1)),
+				true);
+	}
+
+	@Benchmark
+	public MockHttpServletResponse doFilter() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setRemoteAddr("203.0.113.7");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static class StubRedisTemplate extends StringRedisTemplate {
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+			return (T) Long.valueOf(1L);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.grabpic.api.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageKeyValidationBenchmark {
+
+	private UUID albumId;
+	private String validKey;
+	private String foreignAlbumKey;
+	private String malformedKey;
+
+	@Setup
+	public void setUp() {
+		albumId = UUID.randomUUID();
+		validKey = "albums/" + albumId + "/" + UUID.randomUUID() + ".jpg";
+		foreignAlbumKey = "albums/" + UUID.randomUUID() + "/" + UUID.randomUUID() + ".jpg";
+		malformedKey = "albums/" + albumId + "/../" + "a".repeat(200) + ".png";
+	}
+
+	@Benchmark
+	public boolean validKey() {
+		return AlbumController.isValidStorageKey(validKey, albumId);
+	}
+
+	@Benchmark
+	public boolean foreignAlbumKey() {
+		return AlbumController.isValidStorageKey(foreignAlbumKey, albumId);
+	}
+
+	@Benchmark
+	public boolean malformedKey() {
+		return AlbumController.isValidStorageKey(malformedKey, albumId);
+	}
+}
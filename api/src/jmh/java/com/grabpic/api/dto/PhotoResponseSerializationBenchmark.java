@@ -0,0 +1,61 @@
+package com.grabpic.api.dto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhotoResponseSerializationBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int photoCount;
+
+	private final JsonMapper mapper = JsonMapper.builder().build();
+	private List<PhotoResponse> photos;
+
+	@Setup
+	public void setUp() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		photos = new ArrayList<>(photoCount);
+		for (int i = 0; i < photoCount; i++) {
+			int faceCount = random.nextInt(0, 6);
+			int[] boxes = new int[faceCount * 4];
+			for (int j = 0; j < boxes.length; j++) boxes[j] = random.nextInt(0, 4000);
+
+			String id = UUID.randomUUID().toString();
+			photos.add(new PhotoResponse(
+					id,
+					"https://d111111abcdef8.cloudfront.net/albums/" + UUID.randomUUID() + "/" + id
+							+ ".jpg?Expires=1760000000&Signature=" + "x".repeat(344) + "&Key-Pair-Id=K2JCJMDEHXQW5F",
+					random.nextBoolean(),
+					true,
+					faceCount,
+					boxes));
+		}
+	}
+
+	@Benchmark
+	public byte[] serialize() {
+		return mapper.writeValueAsBytes(photos);
+	}
+}
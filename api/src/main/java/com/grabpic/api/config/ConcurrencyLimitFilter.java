@@ -0,0 +1,169 @@
+package com.grabpic.api.config;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps in-flight requests per route class with a limit that follows latency relative to each
+ * class's own baseline, so routes that are slow by nature are not throttled for it.
+ */
+@Component
+// Last of the load-shedding filters (after the profiler, body size limit and rate limit) and
+// before Spring Security, so a shed request costs no token validation.
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class ConcurrencyLimitFilter implements Filter {
+
+    enum RouteClass { GUEST, HOST, LISTING, UPLOAD }
+
+    private final boolean enabled;
+    private final Map<RouteClass, GradientLimiter> limiters = new EnumMap<>(RouteClass.class);
+
+    public ConcurrencyLimitFilter(@Value("${concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${concurrency-limit.min-limit:2}") int minLimit,
+                                  @Value("${concurrency-limit.rtt-tolerance:2.0}") double rttTolerance,
+                                  @Value("${concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${concurrency-limit.guest.max-limit:60}") int guestMaxLimit,
+                                  @Value("${concurrency-limit.host.max-limit:40}") int hostMaxLimit,
+                                  @Value("${concurrency-limit.listing.max-limit:20}") int listingMaxLimit,
+                                  @Value("${concurrency-limit.upload.max-limit:20}") int uploadMaxLimit) {
+        this.enabled = enabled;
+        limiters.put(RouteClass.GUEST, new GradientLimiter(minLimit, guestMaxLimit, rttTolerance, backoffRatio));
+        limiters.put(RouteClass.HOST, new GradientLimiter(minLimit, hostMaxLimit, rttTolerance, backoffRatio));
+        limiters.put(RouteClass.LISTING, new GradientLimiter(minLimit, listingMaxLimit, rttTolerance, backoffRatio));
+        limiters.put(RouteClass.UPLOAD, new GradientLimiter(minLimit, uploadMaxLimit, rttTolerance, backoffRatio));
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpReq = (HttpServletRequest) request;
+        HttpServletResponse httpRes = (HttpServletResponse) response;
+
+        String path = httpReq.getRequestURI();
+        if (!enabled || !path.startsWith("/api/") || "OPTIONS".equalsIgnoreCase(httpReq.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        GradientLimiter limiter = limiters.get(classify(httpReq.getMethod(), path));
+        if (!limiter.tryAcquire()) {
+            reject(httpRes);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = httpRes.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    static RouteClass classify(String method, String path) {
+        if (path.contains("/guest/")) return RouteClass.GUEST;
+        if (path.endsWith("/upload-urls")
+                || ("POST".equalsIgnoreCase(method) && path.endsWith("/photos"))) {
+            return RouteClass.UPLOAD;
+        }
+        // Full album listings take seconds where the other host calls take milliseconds; sharing
+        // a baseline would make every listing look like queueing.
+        if ("GET".equalsIgnoreCase(method) && path.endsWith("/photos")) return RouteClass.LISTING;
+        return RouteClass.HOST;
+    }
+
+    int currentLimit(RouteClass routeClass) {
+        return limiters.get(routeClass).limit();
+    }
+
+    private void reject(HttpServletResponse httpRes) throws IOException {
+        httpRes.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        httpRes.setHeader("Retry-After", "1");
+        httpRes.setContentType("application/json");
+        httpRes.getWriter().write("{\"error\":\"The service is busy. Please try again in a moment.\"}");
+    }
+
+    /**
+     * Gradient limiter: compares a short average of request latency with a slowly moving
+     * baseline. While the short average stays within {@code rttTolerance} of the baseline the
+     * limit grows by about its square root; when requests start queueing it shrinks in
+     * proportion. 5xx responses back off by {@code backoffRatio}. Starts at half the cap.
+     */
+    static final class GradientLimiter {
+
+        // Averages over roughly the last 50 and the last 500 completions.
+        private static final double SHORT_ALPHA = 2.0 / 51;
+        private static final double LONG_ALPHA = 2.0 / 501;
+        private static final double SMOOTHING = 0.2;
+
+        private final int minLimit;
+        private final int maxLimit;
+        private final double rttTolerance;
+        private final double backoffRatio;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double limit;
+        private double shortRtt;
+        private double longRtt;
+
+        GradientLimiter(int minLimit, int maxLimit, double rttTolerance, double backoffRatio) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.rttTolerance = rttTolerance;
+            this.backoffRatio = backoffRatio;
+            this.limit = Math.max(minLimit, maxLimit / 2.0);
+        }
+
+        int limit() {
+            return (int) limit;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit()) return false;
+                if (inFlight.compareAndSet(current, current + 1)) return true;
+            }
+        }
+
+        void release(long rttNanos, boolean failed) {
+            int inFlightAtCompletion = inFlight.getAndDecrement();
+
+            synchronized (this) {
+                if (failed) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    return;
+                }
+                if (longRtt == 0) {
+                    shortRtt = rttNanos;
+                    longRtt = rttNanos;
+                    return;
+                }
+                shortRtt += (rttNanos - shortRtt) * SHORT_ALPHA;
+                longRtt += (rttNanos - longRtt) * LONG_ALPHA;
+                // Once an overload clears, let the baseline come back down with the short average.
+                if (longRtt > 2 * shortRtt) longRtt *= 0.95;
+
+                // Latency says little about the limit while most of it is unused.
+                if (inFlightAtCompletion * 2 < limit) return;
+
+                double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+                double target = limit * gradient + Math.sqrt(limit);
+                limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.grabpic.api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+public class DependencyGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(DependencyGuard.class);
+
+    private final String name;
+    private final Semaphore bulkhead;
+    private final long acquireTimeoutNanos;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openUntil = new AtomicLong();
+
+    DependencyGuard(String name, int maxConcurrent, Duration acquireTimeout,
+                    int failureThreshold, Duration openDuration) {
+        this(name, maxConcurrent, acquireTimeout, failureThreshold, openDuration, System::nanoTime);
+    }
+
+    DependencyGuard(String name, int maxConcurrent, Duration acquireTimeout,
+                    int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.name = name;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public <T> T call(Supplier<T> action) {
+        long openedUntil = openUntil.get();
+        if (openedUntil != 0) {
+            if (nanoClock.getAsLong() - openedUntil < 0) {
+                throw new DependencyUnavailableException(name, "circuit open");
+            }
+            // Let exactly one caller probe the dependency once the open window has passed.
+            if (!openUntil.compareAndSet(openedUntil, nanoClock.getAsLong() + openDurationNanos)) {
+                throw new DependencyUnavailableException(name, "circuit open");
+            }
+        }
+
+        try {
+            if (!bulkhead.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new DependencyUnavailableException(name, "too many concurrent calls");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException(name, "interrupted waiting for capacity", e);
+        }
+
+        try {
+            T result = action.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            onFailure(e);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public boolean isOpen() {
+        long openedUntil = openUntil.get();
+        return openedUntil != 0 && nanoClock.getAsLong() - openedUntil < 0;
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (openUntil.getAndSet(0) != 0) {
+            log.info("Circuit for {} closed", name);
+        }
+    }
+
+    private void onFailure(RuntimeException e) {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            long until = nanoClock.getAsLong() + openDurationNanos;
+            if (openUntil.getAndSet(until) == 0) {
+                log.warn("Circuit for {} opened after {} consecutive failures: {}",
+                        name, consecutiveFailures.get(), e.getMessage());
+            }
+        }
+    }
+}
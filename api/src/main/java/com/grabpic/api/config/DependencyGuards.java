@@ -0,0 +1,29 @@
+package com.grabpic.api.config;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class DependencyGuards {
+
+    private final Environment env;
+    private final ConcurrentHashMap<String, DependencyGuard> guards = new ConcurrentHashMap<>();
+
+    public DependencyGuards(Environment env) {
+        this.env = env;
+    }
+
+    public DependencyGuard forDependency(String name) {
+        return guards.computeIfAbsent(name, n -> {
+            String prefix = "dependency." + n + ".";
+            return new DependencyGuard(n,
+                    env.getProperty(prefix + "max-concurrent", Integer.class, 20),
+                    env.getProperty(prefix + "acquire-timeout", Duration.class, Duration.ofMillis(100)),
+                    env.getProperty(prefix + "failure-threshold", Integer.class, 5),
+                    env.getProperty(prefix + "open-duration", Duration.class, Duration.ofSeconds(30)));
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package com.grabpic.api.config;
+
+public class DependencyUnavailableException extends RuntimeException {
+
+    private final String dependency;
+
+    public DependencyUnavailableException(String dependency, String message) {
+        super(dependency + ": " + message);
+        this.dependency = dependency;
+    }
+
+    public DependencyUnavailableException(String dependency, String message, Throwable cause) {
+        super(dependency + ": " + message, cause);
+        this.dependency = dependency;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+}
@@ -37,6 +37,14 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", "This HTTP method is not supported for the requested endpoint."));
     }
 
+        @ExceptionHandler(DependencyUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleDependencyUnavailable(DependencyUnavailableException ex) {
+        log.warn("Dependency unavailable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(Map.of("error", "The service is temporarily unavailable. Please try again shortly."));
+    }
+
         @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleAll(Exception ex) {
         log.error("Unhandled exception", ex);
@@ -0,0 +1,289 @@
+package com.grabpic.api.config;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.security.autoconfigure.web.servlet.SecurityFilterProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+@Component
+@Order(SecurityFilterProperties.DEFAULT_FILTER_ORDER + 1)
+public class IdempotencyFilter implements Filter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String KEY_PREFIX = "idem:";
+    private static final String PENDING = "P";
+    private static final String DONE = "D";
+    private static final Pattern VALID_KEY_PATTERN = Pattern.compile("^[A-Za-z0-9_\\-:.]{8,128}$");
+    // Headers the filter chain sets again, or that describe the replayed body itself.
+    private static final Set<String> UNREPLAYED_HEADERS =
+            Set.of("content-type", "content-length", "transfer-encoding", "date");
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration responseTtl;
+    private final Duration lockTtl;
+
+    public IdempotencyFilter(StringRedisTemplate redisTemplate,
+                             @Value("${idempotency.response-ttl:24h}") Duration responseTtl,
+                             @Value("${idempotency.lock-ttl:60s}") Duration lockTtl) {
+        this.redisTemplate = redisTemplate;
+        this.responseTtl = responseTtl;
+        this.lockTtl = lockTtl;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpReq = (HttpServletRequest) request;
+        HttpServletResponse httpRes = (HttpServletResponse) response;
+
+        String idempotencyKey = httpReq.getHeader(HEADER);
+        if (idempotencyKey == null
+                || !isMutating(httpReq.getMethod())
+                || !httpReq.getRequestURI().startsWith("/api/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!VALID_KEY_PATTERN.matcher(idempotencyKey).matches()) {
+            reject(httpRes, HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key header.");
+            return;
+        }
+
+        CachedBodyRequestWrapper cachedRequest = new CachedBodyRequestWrapper(httpReq);
+        String requestHash = hashRequest(cachedRequest);
+        String redisKey = KEY_PREFIX + callerScope(httpReq) + ":" + idempotencyKey;
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            boolean claimed;
+            String stored = null;
+            try {
+                claimed = Boolean.TRUE.equals(redisTemplate.opsForValue()
+                        .setIfAbsent(redisKey, PENDING + "|" + requestHash, lockTtl));
+                if (!claimed) stored = redisTemplate.opsForValue().get(redisKey);
+            } catch (DataAccessException e) {
+                log.warn("Redis idempotency check failed (processing without it): {}", e.getMessage());
+                chain.doFilter(cachedRequest, response);
+                return;
+            }
+
+            if (claimed) {
+                executeAndStore(cachedRequest, httpRes, chain, redisKey, requestHash);
+                return;
+            }
+
+            // The key expired or was released between the two calls; try to claim it again.
+            if (stored == null) continue;
+
+            String[] parts = stored.split("\\|", -1);
+            if (!parts[1].equals(requestHash)) {
+                reject(httpRes, HttpStatus.UNPROCESSABLE_CONTENT,
+                        "Idempotency-Key was already used with a different request.");
+                return;
+            }
+
+            if (DONE.equals(parts[0])) {
+                replay(httpRes, parts);
+                return;
+            }
+            break;
+        }
+
+        httpRes.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        reject(httpRes, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed.");
+    }
+
+    private void executeAndStore(CachedBodyRequestWrapper request, HttpServletResponse response,
+                                 FilterChain chain, String redisKey, String requestHash)
+            throws IOException, ServletException {
+
+        Set<String> headersBefore = new HashSet<>();
+        response.getHeaderNames().forEach(name -> headersBefore.add(name.toLowerCase(Locale.ROOT)));
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, cachingResponse);
+
+            // Anything else may succeed when retried with the same key.
+            int status = cachingResponse.getStatus();
+            if (status >= 200 && status < 300) {
+                stored = storeResponse(redisKey, requestHash, status, cachingResponse, headersBefore);
+            }
+        } finally {
+            if (!stored) releaseQuietly(redisKey);
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private boolean storeResponse(String redisKey, String requestHash, int status,
+                                  ContentCachingResponseWrapper cachingResponse, Set<String> headersBefore) {
+        String contentType = cachingResponse.getContentType() == null ? "" : cachingResponse.getContentType();
+        StringBuilder headers = new StringBuilder();
+        for (String name : cachingResponse.getHeaderNames()) {
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            if (headersBefore.contains(lowerName) || UNREPLAYED_HEADERS.contains(lowerName)) continue;
+            for (String headerValue : cachingResponse.getHeaders(name)) {
+                headers.append(name).append(": ").append(headerValue).append('\n');
+            }
+        }
+        String value = String.join("|",
+                DONE,
+                requestHash,
+                String.valueOf(status),
+                Base64.getEncoder().encodeToString(contentType.getBytes(StandardCharsets.UTF_8)),
+                Base64.getEncoder().encodeToString(cachingResponse.getContentAsByteArray()),
+                Base64.getEncoder().encodeToString(headers.toString().getBytes(StandardCharsets.UTF_8)));
+        try {
+            redisTemplate.opsForValue().set(redisKey, value, responseTtl);
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not store idempotent response: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void replay(HttpServletResponse httpRes, String[] parts) throws IOException {
+        httpRes.setStatus(Integer.parseInt(parts[2]));
+        String contentType = new String(Base64.getDecoder().decode(parts[3]), StandardCharsets.UTF_8);
+        if (!contentType.isEmpty()) httpRes.setContentType(contentType);
+        if (parts.length > 5) {
+            String headers = new String(Base64.getDecoder().decode(parts[5]), StandardCharsets.UTF_8);
+            for (String line : headers.split("\n")) {
+                int colon = line.indexOf(": ");
+                if (colon > 0) httpRes.addHeader(line.substring(0, colon), line.substring(colon + 2));
+            }
+        }
+        httpRes.setHeader(REPLAYED_HEADER, "true");
+        httpRes.getOutputStream().write(Base64.getDecoder().decode(parts[4]));
+    }
+
+    private void releaseQuietly(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (Exception e) {
+            log.warn("Could not release idempotency key: {}", e.getMessage());
+        }
+    }
+
+    private boolean isMutating(String method) {
+        return "POST".equalsIgnoreCase(method)
+                || "PUT".equalsIgnoreCase(method)
+                || "PATCH".equalsIgnoreCase(method)
+                || "DELETE".equalsIgnoreCase(method);
+    }
+
+    private String callerScope(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
+            return jwtAuth.getToken().getSubject();
+        }
+        return "ip-" + request.getRemoteAddr();
+    }
+
+    private String hashRequest(CachedBodyRequestWrapper request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(request.getBody());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void reject(HttpServletResponse httpRes, HttpStatus status, String message) throws IOException {
+        httpRes.setStatus(status.value());
+        httpRes.setContentType("application/json");
+        httpRes.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private static class CachedBodyRequestWrapper extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequestWrapper(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
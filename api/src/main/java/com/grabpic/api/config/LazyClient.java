@@ -0,0 +1,42 @@
+package com.grabpic.api.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Builds an SDK client (or any expensive dependency) on first use instead of during bean
+ * creation, so it does not add to startup time. Closing is a no-op if it was never built.
+ */
+public final class LazyClient<T> implements Supplier<T> {
+
+    private final Supplier<T> factory;
+    private volatile T instance;
+
+    public LazyClient(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public T get() {
+        T current = instance;
+        if (current == null) {
+            synchronized (this) {
+                current = instance;
+                if (current == null) {
+                    current = factory.get();
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public void close() {
+        T current = instance;
+        if (current instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+}
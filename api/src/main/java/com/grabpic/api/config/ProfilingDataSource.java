@@ -0,0 +1,94 @@
+package com.grabpic.api.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Records every statement and commit a request sends to the database as the DB phase, whether
+ * it comes from Hibernate, JdbcTemplate or plain JDBC. Time spent opening a statement, which is
+ * when the lazy connection proxy borrows a pooled connection, is added to that statement's
+ * first execution so each query still counts once.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> CONNECTION_ROUND_TRIPS = Set.of("commit", "rollback");
+    private static final Set<String> STATEMENT_OPENERS = Set.of("createStatement", "prepareStatement", "prepareCall");
+    private static final Set<String> STATEMENT_ROUND_TRIPS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public ProfilingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return profiled(Connection.class, super.getConnection(), 0);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return profiled(Connection.class, super.getConnection(username, password), 0);
+    }
+
+    private static <T> T profiled(Class<T> type, T target, long openNanos) {
+        return type.cast(Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(),
+                new Class<?>[] {type}, new ProfilingHandler(target, openNanos)));
+    }
+
+    private static final class ProfilingHandler implements InvocationHandler {
+
+        private final Object target;
+        private long openNanos;
+
+        private ProfilingHandler(Object target, long openNanos) {
+            this.target = target;
+            this.openNanos = openNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) return proxy == args[0];
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+
+            boolean statementRoundTrip = target instanceof Statement && STATEMENT_ROUND_TRIPS.contains(name);
+            boolean connectionRoundTrip = target instanceof Connection && CONNECTION_ROUND_TRIPS.contains(name);
+            boolean opener = target instanceof Connection && STATEMENT_OPENERS.contains(name);
+            if (!statementRoundTrip && !connectionRoundTrip && !opener) return delegate(method, args);
+
+            long start = System.nanoTime();
+            if (opener) {
+                Object statement = delegate(method, args);
+                return profiledStatement(method.getReturnType(), statement, System.nanoTime() - start);
+            }
+            try {
+                return delegate(method, args);
+            } finally {
+                RequestProfiler.record(RequestProfiler.Phase.DB, start - openNanos);
+                openNanos = 0;
+            }
+        }
+
+        private Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Object profiledStatement(Class<?> type, Object statement, long openNanos) {
+            return profiled((Class<Object>) type, statement, openNanos);
+        }
+    }
+}
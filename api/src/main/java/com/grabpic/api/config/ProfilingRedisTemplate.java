@@ -0,0 +1,26 @@
+package com.grabpic.api.config;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Records every Redis command a request sends as the REDIS phase. All template operations,
+ * scripts included, run through this execute overload.
+ */
+public class ProfilingRedisTemplate extends StringRedisTemplate {
+
+    public ProfilingRedisTemplate(RedisConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    public <T> T execute(RedisCallback<T> action, boolean exposeConnection, boolean pipeline) {
+        long start = System.nanoTime();
+        try {
+            return super.execute(action, exposeConnection, pipeline);
+        } finally {
+            RequestProfiler.record(RequestProfiler.Phase.REDIS, start);
+        }
+    }
+}
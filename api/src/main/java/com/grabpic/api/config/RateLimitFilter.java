@@ -1,10 +1,15 @@
 package com.grabpic.api.config;
 
+import com.grabpic.api.service.HeavyHitters;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -16,16 +21,40 @@ import java.io.IOException;
 import java.util.Collections;
 
 @Component
-@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+// After the profiler and body size limit; before the concurrency limit, so throttled callers
+// never take a concurrency slot.
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
 public class RateLimitFilter implements Filter {
 
     private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
 
+    private static final String ALBUMS_PREFIX = "/api/albums/";
+    private static final int UUID_LENGTH = 36;
+
     private final StringRedisTemplate redisTemplate;
     private final DefaultRedisScript<Long> tokenBucketScript;
-
-    public RateLimitFilter(StringRedisTemplate redisTemplate) {
+    private final DependencyGuard redisGuard;
+    private final HeavyHitters heavyHitters;
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final Timer redisCheckTimer;
+    private final Counter failOpenCounter;
+
+    public RateLimitFilter(StringRedisTemplate redisTemplate, DependencyGuards dependencyGuards,
+                           MeterRegistry meterRegistry, HeavyHitters heavyHitters,
+                           @Value("${rate-limit.enabled:true}") boolean enabled) {
         this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.redisGuard = dependencyGuards.forDependency("redis");
+        this.heavyHitters = heavyHitters;
+        this.meterRegistry = meterRegistry;
+        this.redisCheckTimer = Timer.builder("rate-limit.redis.check")
+                .description("Round-trip of the token bucket Lua script")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.failOpenCounter = Counter.builder("rate-limit.fail-open")
+                .description("Requests allowed because the rate-limit check could not reach Redis")
+                .register(meterRegistry);
 
         this.tokenBucketScript = new DefaultRedisScript<>();
         this.tokenBucketScript.setResultType(Long.class);
@@ -73,34 +102,46 @@ public class RateLimitFilter implements Filter {
         String path = httpReq.getRequestURI();
         String ip = getClientIp(httpReq);
 
+        if (path.startsWith("/api/")) {
+            heavyHitters.record(albumId(path), ip);
+        }
+
+        if (enabled && !checkRateLimit(path, ip, httpRes)) {
+            return;
+        }
+
+        httpRes.setHeader("X-Content-Type-Options", "nosniff");
+        httpRes.setHeader("X-Frame-Options", "DENY");
+        httpRes.setHeader("X-XSS-Protection", "1; mode=block");
+        httpRes.setHeader("Referrer-Policy", "strict-origin-when-cross-origin");
+        httpRes.setHeader("Permissions-Policy", "camera=(), microphone=(), geolocation=()");
+
+        chain.doFilter(request, response);
+    }
+
+    private boolean checkRateLimit(String path, String ip, HttpServletResponse httpRes) throws IOException {
         if (path.contains("/guest/search-results")) {
             if (!tryConsume("rl:" + ip + ":guest-search", 5, 5)) {
-                reject(httpRes, "Too many search requests. Please wait a moment.");
-                return;
+                reject(httpRes, "guest-search", "Too many search requests. Please wait a moment.");
+                return false;
             }
         }
 
         else if (path.contains("/guest/details")) {
             if (!tryConsume("rl:" + ip + ":guest-details", 20, 20)) {
-                reject(httpRes, "Too many requests. Please slow down.");
-                return;
+                reject(httpRes, "guest-details", "Too many requests. Please slow down.");
+                return false;
             }
         }
 
         else if (path.startsWith("/api/")) {
             if (!tryConsume("rl:" + ip + ":auth", 60, 60)) {
-                reject(httpRes, "Rate limit exceeded. Please try again later.");
-                return;
+                reject(httpRes, "auth", "Rate limit exceeded. Please try again later.");
+                return false;
             }
         }
 
-        httpRes.setHeader("X-Content-Type-Options", "nosniff");
-        httpRes.setHeader("X-Frame-Options", "DENY");
-        httpRes.setHeader("X-XSS-Protection", "1; mode=block");
-        httpRes.setHeader("Referrer-Policy", "strict-origin-when-cross-origin");
-        httpRes.setHeader("Permissions-Policy", "camera=(), microphone=(), geolocation=()");
-
-        chain.doFilter(request, response);
+        return true;
     }
 
         private boolean tryConsume(String key, long capacity, long refillPerMinute) {
@@ -109,27 +150,36 @@ public class RateLimitFilter implements Filter {
             double refillPerMs = refillPerMinute / 60_000.0;
             int ttlSeconds = (int) (capacity * 60 / refillPerMinute) + 120;
 
-            Long result = redisTemplate.execute(
+            Long result = redisGuard.call(() -> redisCheckTimer.record(() -> redisTemplate.execute(
                     tokenBucketScript,
                     Collections.singletonList(key),
                     String.valueOf(capacity),
                     String.valueOf(refillPerMs),
                     String.valueOf(now),
                     String.valueOf(ttlSeconds)
-            );
+            )));
             return result != null && result == 1L;
         } catch (Exception e) {
+            failOpenCounter.increment();
             log.warn("Redis rate-limit check failed (allowing request): {}", e.getMessage());
             return true;
         }
     }
 
-    private void reject(HttpServletResponse httpRes, String message) throws IOException {
+    private void reject(HttpServletResponse httpRes, String bucket, String message) throws IOException {
+        meterRegistry.counter("rate-limit.rejected", "bucket", bucket).increment();
         httpRes.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
         httpRes.setContentType("application/json");
         httpRes.getWriter().write("{\"error\":\"" + message + "\"}");
     }
 
+    private static String albumId(String path) {
+        if (!path.startsWith(ALBUMS_PREFIX)) return null;
+        int end = ALBUMS_PREFIX.length() + UUID_LENGTH;
+        if (path.length() < end || (path.length() > end && path.charAt(end) != '/')) return null;
+        return path.substring(ALBUMS_PREFIX.length(), end);
+    }
+
         private String getClientIp(HttpServletRequest request) {
         return request.getRemoteAddr();
     }
@@ -0,0 +1,80 @@
+package com.grabpic.api.config;
+
+import com.grabpic.api.service.ReplicaLagGuard;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets only handlers marked {@code @Transactional(readOnly = true)} read from the replica,
+ * whatever their HTTP method; every other handler is pinned to the primary, including the
+ * reads it makes through repositories. Reads of a user who wrote within the lag window go
+ * to the primary as well.
+ */
+@Component
+public class ReplicaRoutingInterceptor implements HandlerInterceptor {
+
+    private final ReplicaLagGuard replicaLagGuard;
+    private final ConcurrentHashMap<Method, Boolean> readOnlyHandlers = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingInterceptor(ReplicaLagGuard replicaLagGuard) {
+        this.replicaLagGuard = replicaLagGuard;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String userId = currentUserId();
+        if (!isReadOnly(handler)) {
+            ReplicaRoutingContext.pinPrimary();
+            // Recorded before the write, so a read sent as soon as the response arrives sees it.
+            if (userId != null && isMutating(request.getMethod())) replicaLagGuard.recordWrite(userId);
+            return true;
+        }
+
+        if (userId != null && replicaLagGuard.wroteRecently(userId)) {
+            ReplicaRoutingContext.pinPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        ReplicaRoutingContext.clear();
+    }
+
+    private boolean isReadOnly(Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) return false;
+        return readOnlyHandlers.computeIfAbsent(handlerMethod.getMethod(), method -> {
+            Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+            if (transactional == null) {
+                transactional = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), Transactional.class);
+            }
+            return transactional != null && transactional.readOnly();
+        });
+    }
+
+    private boolean isMutating(String method) {
+        return !"GET".equalsIgnoreCase(method)
+                && !"HEAD".equalsIgnoreCase(method)
+                && !"OPTIONS".equalsIgnoreCase(method);
+    }
+
+    private String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
+            return jwtAuth.getToken().getSubject();
+        }
+        return null;
+    }
+}
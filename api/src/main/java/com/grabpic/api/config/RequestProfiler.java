@@ -0,0 +1,102 @@
+package com.grabpic.api.config;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+public final class RequestProfiler {
+
+    public enum Phase {
+        FILTERS, AUTH, REDIS, DB, S3, SIGNING, SQS, HANDLER, SERIALIZATION
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<Profile> CURRENT = ThreadLocal.withInitial(Profile::new);
+
+    private RequestProfiler() {
+    }
+
+    public static void begin() {
+        Profile profile = CURRENT.get();
+        profile.reset();
+        profile.active = true;
+        profile.startNanos = System.nanoTime();
+    }
+
+    public static long end() {
+        Profile profile = CURRENT.get();
+        long now = System.nanoTime();
+        if (profile.handlerStartNanos != 0) {
+            if (profile.bodyWriteStartNanos != 0) {
+                profile.add(Phase.SERIALIZATION, now - profile.bodyWriteStartNanos);
+            } else {
+                profile.add(Phase.HANDLER, now - profile.handlerStartNanos);
+            }
+        }
+        profile.active = false;
+        return now - profile.startNanos;
+    }
+
+    public static long[] phaseNanos() {
+        return CURRENT.get().phaseNanos.clone();
+    }
+
+    public static int[] phaseCounts() {
+        return CURRENT.get().phaseCounts.clone();
+    }
+
+    public static void handlerStarted() {
+        Profile profile = CURRENT.get();
+        if (!profile.active) return;
+        long now = System.nanoTime();
+        profile.handlerStartNanos = now;
+        profile.add(Phase.FILTERS, now - profile.startNanos);
+    }
+
+    public static void bodyWriteStarted() {
+        Profile profile = CURRENT.get();
+        if (!profile.active || profile.handlerStartNanos == 0 || profile.bodyWriteStartNanos != 0) return;
+        long now = System.nanoTime();
+        profile.bodyWriteStartNanos = now;
+        profile.add(Phase.HANDLER, now - profile.handlerStartNanos);
+    }
+
+    public static void record(Phase phase, long startNanos) {
+        Profile profile = CURRENT.get();
+        if (profile.active) profile.add(phase, System.nanoTime() - startNanos);
+    }
+
+    public static <T> T time(Phase phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(phase, start);
+        }
+    }
+
+    public static Phase[] phases() {
+        return PHASES;
+    }
+
+    private static final class Profile {
+
+        private final long[] phaseNanos = new long[PHASES.length];
+        private final int[] phaseCounts = new int[PHASES.length];
+        private boolean active;
+        private long startNanos;
+        private long handlerStartNanos;
+        private long bodyWriteStartNanos;
+
+        private void add(Phase phase, long nanos) {
+            phaseNanos[phase.ordinal()] += nanos;
+            phaseCounts[phase.ordinal()]++;
+        }
+
+        private void reset() {
+            Arrays.fill(phaseNanos, 0);
+            Arrays.fill(phaseCounts, 0);
+            handlerStartNanos = 0;
+            bodyWriteStartNanos = 0;
+        }
+    }
+}
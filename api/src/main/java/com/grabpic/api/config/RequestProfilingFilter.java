@@ -0,0 +1,69 @@
+package com.grabpic.api.config;
+
+import com.grabpic.api.service.SlowRequestLog;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+// Strictly outermost, so the FILTERS phase covers every filter after it: body size limit (+1),
+// rate limit (+2), concurrency limit (+3), then Spring Security and idempotency.
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestProfilingFilter implements Filter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestProfilingFilter.class);
+
+    private final SlowRequestLog slowRequestLog;
+    private final boolean enabled;
+    private final AtomicBoolean firstRequestServed = new AtomicBoolean();
+
+    public RequestProfilingFilter(SlowRequestLog slowRequestLog,
+                                  @Value("${profiler.enabled:true}") boolean enabled) {
+        this.slowRequestLog = slowRequestLog;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpReq = (HttpServletRequest) request;
+        if (!enabled || !httpReq.getRequestURI().startsWith("/api/")) {
+            chain.doFilter(request, response);
+            logFirstRequest(httpReq);
+            return;
+        }
+
+        RequestProfiler.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long totalNanos = RequestProfiler.end();
+            if (slowRequestLog.isSlow(totalNanos)) {
+                slowRequestLog.record(httpReq.getMethod(), httpReq.getRequestURI(),
+                        ((HttpServletResponse) response).getStatus(), totalNanos,
+                        RequestProfiler.phaseNanos(), RequestProfiler.phaseCounts());
+            }
+            logFirstRequest(httpReq);
+        }
+    }
+
+    // Time to first request is what autoscaling actually waits for, not just context startup.
+    private void logFirstRequest(HttpServletRequest request) {
+        if (firstRequestServed.get() || !request.getRequestURI().startsWith("/api/")) return;
+        if (firstRequestServed.compareAndSet(false, true)) {
+            log.info("First API request served {}ms after JVM start",
+                    System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.grabpic.api.config;
 
+import com.grabpic.api.service.SessionTokenService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -44,6 +45,7 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/albums/*/guest/**").permitAll()
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.decoder(jwtDecoder())));
@@ -59,7 +61,7 @@ public class SecurityConfig {
 
         decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(jwtIssuer));
 
-        return decoder;
+        return token -> RequestProfiler.time(RequestProfiler.Phase.AUTH, () -> decoder.decode(token));
     }
 
     @Bean
@@ -71,8 +73,11 @@ public class SecurityConfig {
                 "Authorization",
                 "Content-Type",
                 "Accept",
-                "X-Turnstile-Token"
+                "X-Turnstile-Token",
+                SessionTokenService.HEADER,
+                IdempotencyFilter.HEADER
         ));
+        configuration.setExposedHeaders(List.of(IdempotencyFilter.REPLAYED_HEADER, SessionTokenService.HEADER));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
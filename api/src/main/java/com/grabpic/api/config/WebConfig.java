@@ -0,0 +1,24 @@
+package com.grabpic.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ReplicaRoutingInterceptor replicaRoutingInterceptor;
+    private final RequestProfilingAdvice requestProfilingAdvice;
+
+    public WebConfig(ReplicaRoutingInterceptor replicaRoutingInterceptor,
+                     RequestProfilingAdvice requestProfilingAdvice) {
+        this.replicaRoutingInterceptor = replicaRoutingInterceptor;
+        this.requestProfilingAdvice = requestProfilingAdvice;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestProfilingAdvice).addPathPatterns("/api/**");
+        registry.addInterceptor(replicaRoutingInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,56 @@
+package com.grabpic.api.controller;
+
+import com.grabpic.api.service.HeavyHitters;
+import com.grabpic.api.service.SlowRequestLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final SlowRequestLog slowRequestLog;
+    private final HeavyHitters heavyHitters;
+    private final Set<String> adminUserIds;
+
+    public AdminController(SlowRequestLog slowRequestLog,
+                           HeavyHitters heavyHitters,
+                           @Value("${admin.user-ids:}") String adminUserIds) {
+        this.slowRequestLog = slowRequestLog;
+        this.heavyHitters = heavyHitters;
+        this.adminUserIds = Arrays.stream(adminUserIds.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @GetMapping("/slow-requests")
+    public ResponseEntity<?> getSlowRequests(@AuthenticationPrincipal Jwt jwt) {
+        if (!isAdmin(jwt)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin access required");
+        }
+        return ResponseEntity.ok(slowRequestLog.slowest());
+    }
+
+    @GetMapping("/heavy-hitters")
+    public ResponseEntity<?> getHeavyHitters(@AuthenticationPrincipal Jwt jwt) {
+        if (!isAdmin(jwt)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin access required");
+        }
+        return ResponseEntity.ok(heavyHitters.snapshot());
+    }
+
+    boolean isAdmin(Jwt jwt) {
+        return jwt != null && adminUserIds.contains(jwt.getSubject());
+    }
+}
@@ -1,18 +1,38 @@
 package com.grabpic.api.controller;
 
+import com.grabpic.api.dto.AlbumSummary;
+import com.grabpic.api.dto.PhotoFields;
+import com.grabpic.api.dto.PhotoIdsRequest;
 import com.grabpic.api.dto.PhotoSaveRequest;
+import com.grabpic.api.dto.UploadUrlsResponse;
 import com.grabpic.api.model.AccessMode;
 import com.grabpic.api.model.Photo;
 import com.grabpic.api.model.SharedAlbum;
+import com.grabpic.api.repository.PhotoBulkRepository;
 import com.grabpic.api.repository.PhotoRepository;
 import com.grabpic.api.repository.SharedAlbumRepository;
+import com.grabpic.api.service.AlbumAccessCache;
+import com.grabpic.api.service.AlbumArchiveService;
+import com.grabpic.api.service.GuestManifestPublisher;
+import com.grabpic.api.service.PhotoRegistrationService;
+import com.grabpic.api.service.S3CleanupQueue;
 import com.grabpic.api.service.S3StorageService;
+import com.grabpic.api.service.SingleFlightCache;
 import com.grabpic.api.service.SqsService;
+import com.grabpic.api.service.SessionTokenService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import com.grabpic.api.service.TurnstileService;
+import com.grabpic.api.service.UploadEventConsumer;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -29,19 +49,61 @@ public class AlbumController {
     private final S3StorageService s3StorageService;
     private final SharedAlbumRepository albumRepository;
     private final PhotoRepository photoRepository;
+    private final PhotoBulkRepository photoBulkRepository;
+    private final S3CleanupQueue s3CleanupQueue;
     private final SqsService sqsService;
     private final TurnstileService turnstileService;
+    private final AlbumAccessCache albumAccessCache;
+    private final SingleFlightCache singleFlightCache;
+    private final GuestManifestPublisher guestManifestPublisher;
+    private final SessionTokenService sessionTokenService;
+    private final PhotoRegistrationService photoRegistrationService;
+    private final UploadEventConsumer uploadEventConsumer;
+    private final AlbumArchiveService albumArchiveService;
+    private final DistributionSummary hostAlbumSize;
+    private final DistributionSummary guestAlbumSize;
 
     public AlbumController(S3StorageService s3StorageService,
                            SharedAlbumRepository albumRepository,
                            PhotoRepository photoRepository,
+                           PhotoBulkRepository photoBulkRepository,
+                           S3CleanupQueue s3CleanupQueue,
                            SqsService sqsService,
-                           TurnstileService turnstileService) {
+                           TurnstileService turnstileService,
+                           AlbumAccessCache albumAccessCache,
+                           SingleFlightCache singleFlightCache,
+                           GuestManifestPublisher guestManifestPublisher,
+                           SessionTokenService sessionTokenService,
+                           PhotoRegistrationService photoRegistrationService,
+                           UploadEventConsumer uploadEventConsumer,
+                           AlbumArchiveService albumArchiveService,
+                           MeterRegistry meterRegistry) {
         this.s3StorageService = s3StorageService;
         this.albumRepository = albumRepository;
         this.photoRepository = photoRepository;
+        this.photoBulkRepository = photoBulkRepository;
+        this.s3CleanupQueue = s3CleanupQueue;
         this.sqsService = sqsService;
         this.turnstileService = turnstileService;
+        this.albumAccessCache = albumAccessCache;
+        this.singleFlightCache = singleFlightCache;
+        this.guestManifestPublisher = guestManifestPublisher;
+        this.sessionTokenService = sessionTokenService;
+        this.photoRegistrationService = photoRegistrationService;
+        this.uploadEventConsumer = uploadEventConsumer;
+        this.albumArchiveService = albumArchiveService;
+        this.hostAlbumSize = albumSizeSummary("host", meterRegistry);
+        this.guestAlbumSize = albumSizeSummary("guest", meterRegistry);
+    }
+
+    private static DistributionSummary albumSizeSummary(String view, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("album.photos")
+                .description("Photos returned per album listing")
+                .baseUnit("photos")
+                .tag("view", view)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(500.0)
+                .register(meterRegistry);
     }
 
     @PostMapping
@@ -63,6 +125,7 @@ public class AlbumController {
     }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public ResponseEntity<List<com.grabpic.api.dto.AlbumResponse>> getAllAlbums(@AuthenticationPrincipal Jwt jwt) {
         String hostId = jwt.getSubject();
         List<SharedAlbum> albums = albumRepository.findByHostId(hostId);
@@ -77,9 +140,12 @@ public class AlbumController {
     }
     
     private static final int MAX_UPLOAD_BATCH = 50;
+    private static final String UPLOAD_SESSION_SCOPE = "upload";
     private static final long MAX_PHOTO_SIZE_BYTES = 10 * 1024 * 1024;
     private static final long MAX_PHOTOS_PER_USER = 500;
     private static final int MAX_GUEST_SEARCH_RESULTS_IDS = 500;
+    private static final int MAX_BULK_PHOTO_IDS = 500;
+    private static final int[] NO_FACE_BOXES = new int[0];
     private static final String QUOTA_MSG =
             "You have reached the maximum of " + MAX_PHOTOS_PER_USER
             + " photos. Please delete old photos to free up space, "
@@ -88,30 +154,44 @@ public class AlbumController {
     private static final Pattern VALID_STORAGE_KEY_PATTERN =
             Pattern.compile("^albums/[0-9a-fA-F\\-]{36}/[0-9a-fA-F\\-]{36}\\.jpg$");
 
-    private boolean isValidStorageKey(String storageUrl, UUID expectedAlbumId) {
+    static boolean isValidStorageKey(String storageUrl, UUID expectedAlbumId) {
         if (storageUrl == null || storageUrl.isBlank()) return false;
         if (!VALID_STORAGE_KEY_PATTERN.matcher(storageUrl).matches()) return false;
         String expectedPrefix = "albums/" + expectedAlbumId.toString() + "/";
         return storageUrl.startsWith(expectedPrefix);
     }
 
+    private long countHostPhotos(String hostId) {
+        return photoRepository.countByAlbumHostId(hostId) + photoBulkRepository.countArchivedByHostId(hostId);
+    }
+
+    private static final Pattern SHA256_BASE64_PATTERN = Pattern.compile("^[A-Za-z0-9+/]{43}=$");
+
     @PostMapping("/{albumId}/upload-urls")
     public ResponseEntity<?> getUploadUrls(
             @PathVariable UUID albumId,
             @RequestBody com.grabpic.api.dto.UploadUrlRequest request,
             @RequestHeader(value = "X-Turnstile-Token", required = false) String turnstileToken,
+            @RequestHeader(value = SessionTokenService.HEADER, required = false) String sessionToken,
             HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse,
             @AuthenticationPrincipal Jwt jwt) {
 
-        if (!turnstileService.isHuman(turnstileToken, httpRequest.getRemoteAddr())) {
-            return ResponseEntity.status(403).body("Bot activity detected.");
+        if (turnstileService.isEnabled()
+                && !sessionTokenService.verify(sessionToken, UPLOAD_SESSION_SCOPE, jwt.getSubject())) {
+            if (!turnstileService.isHuman(turnstileToken, httpRequest.getRemoteAddr())) {
+                return ResponseEntity.status(403).body("Bot activity detected.");
+            }
+            httpResponse.setHeader(SessionTokenService.HEADER,
+                    sessionTokenService.mint(UPLOAD_SESSION_SCOPE, jwt.getSubject()));
         }
 
-        Optional<SharedAlbum> albumOpt = albumRepository.findById(albumId);
+        Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
         if (albumOpt.isEmpty()) return ResponseEntity.notFound().build();
-        if (!albumOpt.get().getHostId().equals(jwt.getSubject())) {
+        if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
             return ResponseEntity.status(403).body("You do not have permission to upload to this album.");
         }
+        albumArchiveService.rehydrateIfArchived(albumOpt.get());
 
         List<Long> fileSizes = request.getFileSizes();
         if (fileSizes == null || fileSizes.isEmpty() || fileSizes.size() > MAX_UPLOAD_BATCH) {
@@ -126,14 +206,35 @@ public class AlbumController {
             }
         }
 
-        long totalUserPhotos = photoRepository.countByAlbumHostId(jwt.getSubject());
+        List<Boolean> publicFlags = request.getPublicFlags();
+        if (publicFlags != null && publicFlags.size() != fileSizes.size()) {
+            return ResponseEntity.badRequest().body("publicFlags must have one entry per file.");
+        }
+
+        List<String> checksums = request.getChecksums();
+        if (publicFlags != null && (checksums == null || checksums.size() != fileSizes.size()
+                || !checksums.stream().allMatch(c -> c != null && SHA256_BASE64_PATTERN.matcher(c).matches()))) {
+            return ResponseEntity.badRequest().body("checksums must have one base64 SHA-256 per file.");
+        }
+
+        long totalUserPhotos = countHostPhotos(jwt.getSubject());
         if (totalUserPhotos >= MAX_PHOTOS_PER_USER) {
             return ResponseEntity.badRequest().body(QUOTA_MSG);
         }
         int allowed = (int) Math.min(fileSizes.size(), MAX_PHOTOS_PER_USER - totalUserPhotos);
         List<Long> allowedSizes = fileSizes.subList(0, allowed);
 
-        return ResponseEntity.ok(s3StorageService.generateBatchUploadUrls(albumId, allowedSizes));
+        if (publicFlags == null) {
+            return ResponseEntity.ok(s3StorageService.generateBatchUploadUrls(albumId, allowedSizes));
+        }
+
+        List<AccessMode> accessModes = publicFlags.subList(0, allowed).stream()
+                .map(isPublic -> Boolean.TRUE.equals(isPublic) ? AccessMode.PUBLIC : AccessMode.PROTECTED)
+                .toList();
+        return ResponseEntity.ok(new UploadUrlsResponse(
+                s3StorageService.generateRegisteredUploadUrls(albumId, allowedSizes, accessModes,
+                        checksums.subList(0, allowed)),
+                uploadEventConsumer.isEnabled()));
     }
 
     @PostMapping("/{albumId}/photos")
@@ -141,17 +242,17 @@ public class AlbumController {
                                                 @RequestBody PhotoSaveRequest request,
                                                 @AuthenticationPrincipal Jwt jwt) {
 
-        Optional<SharedAlbum> albumOpt = albumRepository.findById(albumId);
+        Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
         if (albumOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        SharedAlbum album = albumOpt.get();
-        if (!album.getHostId().equals(jwt.getSubject())) {
+        if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
             return ResponseEntity.status(403).body("You do not own this album.");
         }
+        albumArchiveService.rehydrateIfArchived(albumOpt.get());
 
-        long totalUserPhotos = photoRepository.countByAlbumHostId(jwt.getSubject());
+        long totalUserPhotos = countHostPhotos(jwt.getSubject());
         int incoming = request.getPhotos().size();
         if (totalUserPhotos + incoming > MAX_PHOTOS_PER_USER) {
             return ResponseEntity.badRequest()
@@ -161,84 +262,81 @@ public class AlbumController {
         }
 
         List<String> keysToCleanUp = new ArrayList<>();
+        List<PhotoBulkRepository.NewPhoto> photosToSave = new ArrayList<>();
         for (PhotoSaveRequest.PhotoItem item : request.getPhotos()) {
             if (!isValidStorageKey(item.getStorageUrl(), albumId)) {
-                if (!keysToCleanUp.isEmpty()) s3StorageService.deleteObjects(keysToCleanUp);
+                s3CleanupQueue.deleteLater(keysToCleanUp);
                 return ResponseEntity.badRequest()
                         .body("Invalid photo reference detected. Please re-upload your photos.");
             }
 
-            long objectSize = s3StorageService.getObjectSize(item.getStorageUrl());
+            Optional<S3StorageService.UploadedObject> object = s3StorageService.describeUpload(item.getStorageUrl());
+            long objectSize = object.map(S3StorageService.UploadedObject::size).orElse(-1L);
             if (objectSize <= 0 || objectSize > MAX_PHOTO_SIZE_BYTES) {
                 keysToCleanUp.add(item.getStorageUrl());
-                if (!keysToCleanUp.isEmpty()) s3StorageService.deleteObjects(keysToCleanUp);
+                // A retried save can name objects that are already registered or shared by
+                // deduplicated photos, so the queue only deletes keys no photo references.
+                s3CleanupQueue.deleteLater(keysToCleanUp);
                 return ResponseEntity.badRequest()
                         .body("One or more photos failed validation (missing or too large). Maximum size is 10 MB.");
             }
             keysToCleanUp.add(item.getStorageUrl());
+            photosToSave.add(new PhotoBulkRepository.NewPhoto(item.getStorageUrl(),
+                    item.isPublic() ? AccessMode.PUBLIC : AccessMode.PROTECTED,
+                    object.get().checksumSha256()));
         }
         keysToCleanUp.clear();
 
-        List<Photo> photosToSave = new ArrayList<>();
-
-        for (PhotoSaveRequest.PhotoItem item : request.getPhotos()) {
-            Photo photo = new Photo();
-            photo.setAlbum(album);
-            photo.setStorageUrl(item.getStorageUrl());
-            photo.setAccessMode(item.isPublic() ? AccessMode.PUBLIC : AccessMode.PROTECTED);
-            photo.setProcessed(false);
-
-            photosToSave.add(photo);
-        }
-
-        photoRepository.saveAll(photosToSave);
-
-        List<SqsService.PhotoMessage> sqsMessages = photosToSave.stream()
-                .map(p -> new SqsService.PhotoMessage(p.getId().toString(), p.getStorageUrl()))
-                .toList();
-        sqsService.sendPhotosForProcessingBatch(sqsMessages);
+        photoRegistrationService.register(albumId, photosToSave);
 
         return ResponseEntity.ok().body("Successfully saved " + photosToSave.size() + " photos.");
     }
 
     @GetMapping("/{albumId}/photos")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getAlbumPhotos(@PathVariable UUID albumId,
+                                            @RequestParam(required = false) String fields,
                                             @AuthenticationPrincipal Jwt jwt) {
+        PhotoFields photoFields;
+        try {
+            photoFields = PhotoFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
 
-        Optional<SharedAlbum> albumOpt = albumRepository.findById(albumId);
+        Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
         if (albumOpt.isEmpty()) return ResponseEntity.notFound().build();
-        if (!albumOpt.get().getHostId().equals(jwt.getSubject())) {
+        if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
             return ResponseEntity.status(403).body("You do not own this album.");
         }
-
-        List<Photo> photos = photoRepository.findByAlbumId(albumId);
-        List<com.grabpic.api.dto.PhotoResponse> response = new ArrayList<>();
-
-        for (Photo photo : photos) {
-            String secureViewUrl = s3StorageService.generateViewUrl(photo.getStorageUrl());
-            boolean isPublic = photo.getAccessMode() == AccessMode.PUBLIC;
-
-            int faceCount = 0;
-            List<String> boxes = new ArrayList<>();
-
-            if (photo.getFaces() != null) {
-                faceCount = photo.getFaces().size();
-                for (com.grabpic.api.model.PhotoEmbedding face : photo.getFaces()) {
-                    boxes.add(face.getBoxArea());
-                }
-            }
-
-            response.add(new com.grabpic.api.dto.PhotoResponse(
-                    photo.getId().toString(),
-                    secureViewUrl,
-                    isPublic,
-                    photo.isProcessed(),
-                    faceCount,
-                    boxes
-            ));
+        if (albumOpt.get().archived()) return restoring(albumId);
+        albumArchiveService.touch(albumId);
+
+        if (!photoFields.needsFaces()) {
+            List<PhotoBulkRepository.ListedPhoto> photos = photoBulkRepository.listPhotos(albumId);
+            hostAlbumSize.record(photos.size());
+            return ResponseEntity.ok(photos.stream()
+                    .map(photo -> photoFields.toResponse(
+                            photo.id().toString(),
+                            () -> s3StorageService.generateViewUrl(photo.storageUrl()),
+                            photo.accessMode() == AccessMode.PUBLIC,
+                            photo.processed(),
+                            0,
+                            NO_FACE_BOXES))
+                    .toList());
         }
 
-        return ResponseEntity.ok(response);
+        List<PhotoBulkRepository.ListedPhotoWithFaces> photos = photoBulkRepository.listPhotosWithFaces(albumId);
+        hostAlbumSize.record(photos.size());
+        return ResponseEntity.ok(photos.stream()
+                .map(listed -> photoFields.toResponse(
+                        listed.photo().id().toString(),
+                        () -> s3StorageService.generateViewUrl(listed.photo().storageUrl()),
+                        listed.photo().accessMode() == AccessMode.PUBLIC,
+                        listed.photo().processed(),
+                        listed.faceCount(),
+                        listed.faceBoxes()))
+                .toList());
     }
 
     @DeleteMapping("/{albumId}/photos/{photoId}")
@@ -246,9 +344,9 @@ public class AlbumController {
                                          @PathVariable UUID photoId,
                                          @AuthenticationPrincipal Jwt jwt) {
         try {
-            Optional<SharedAlbum> albumOpt = albumRepository.findById(albumId);
+            Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
             if (albumOpt.isEmpty()) return ResponseEntity.notFound().build();
-            if (!albumOpt.get().getHostId().equals(jwt.getSubject())) {
+            if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
                 return ResponseEntity.status(403).body("You do not own this album.");
             }
 
@@ -258,31 +356,72 @@ public class AlbumController {
                 return ResponseEntity.badRequest().body("Photo does not belong to this album.");
             }
 
-            s3StorageService.deleteObject(photoOpt.get().getStorageUrl());
             photoRepository.delete(photoOpt.get());
+            s3CleanupQueue.deleteLater(List.of(photoOpt.get().getStorageUrl()));
+            singleFlightCache.evictAlbum(albumId);
+            guestManifestPublisher.requestPublish(albumId);
             return ResponseEntity.ok().body("Photo removed successfully.");
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to delete photo");
         }
     }
 
+    @PostMapping("/{albumId}/photos/bulk-delete")
+    public ResponseEntity<?> deletePhotos(@PathVariable UUID albumId,
+                                          @RequestBody PhotoIdsRequest request,
+                                          @AuthenticationPrincipal Jwt jwt) {
+        List<UUID> photoIds = request.getPhotoIds();
+        if (photoIds == null || photoIds.isEmpty() || photoIds.size() > MAX_BULK_PHOTO_IDS) {
+            return ResponseEntity.badRequest().body("Provide between 1 and " + MAX_BULK_PHOTO_IDS + " photo IDs.");
+        }
+
+        Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
+        if (albumOpt.isEmpty()) return ResponseEntity.notFound().build();
+        if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
+            return ResponseEntity.status(403).body("You do not own this album.");
+        }
+
+        List<String> deletedKeys = photoBulkRepository.deleteFromAlbum(albumId, photoIds);
+        s3CleanupQueue.deleteLater(deletedKeys);
+        if (!deletedKeys.isEmpty()) {
+            singleFlightCache.evictAlbum(albumId);
+            guestManifestPublisher.requestPublish(albumId);
+        }
+        return ResponseEntity.ok().body(java.util.Map.of(
+                "deleted", deletedKeys.size(),
+                "requested", photoIds.size()
+        ));
+    }
+
+    @PostMapping("/{albumId}/archive")
+    public ResponseEntity<?> archiveAlbum(@PathVariable UUID albumId,
+                                          @AuthenticationPrincipal Jwt jwt) {
+        Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
+        if (albumOpt.isEmpty()) return ResponseEntity.notFound().build();
+        if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
+            return ResponseEntity.status(403).body("You do not own this album.");
+        }
+
+        if (!albumOpt.get().archived()) albumArchiveService.archive(albumId);
+        return ResponseEntity.ok().body("Album archived. It will be restored the next time it is opened.");
+    }
+
     @DeleteMapping("/{albumId}")
     public ResponseEntity<?> deleteAlbum(@PathVariable UUID albumId,
                                          @AuthenticationPrincipal Jwt jwt) {
         try {
-            Optional<SharedAlbum> albumOpt = albumRepository.findById(albumId);
+            Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
             if (albumOpt.isEmpty()) return ResponseEntity.notFound().build();
-            if (!albumOpt.get().getHostId().equals(jwt.getSubject())) {
+            if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
                 return ResponseEntity.status(403).body("You do not own this album.");
             }
 
-            List<Photo> albumPhotos = photoRepository.findByAlbumId(albumId);
-            List<String> s3Keys = albumPhotos.stream()
-                    .map(Photo::getStorageUrl)
-                    .toList();
-            s3StorageService.deleteObjects(s3Keys);
-
-            albumRepository.delete(albumOpt.get());
+            List<String> s3Keys = photoBulkRepository.storageUrls(albumId);
+            albumRepository.deleteById(albumId);
+            s3CleanupQueue.deleteLater(s3Keys);
+            albumAccessCache.evict(albumId);
+            singleFlightCache.evictAlbum(albumId);
+            guestManifestPublisher.removeAlbum(albumId);
             return ResponseEntity.ok().body("Album deleted successfully.");
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to delete album");
@@ -290,50 +429,97 @@ public class AlbumController {
     }
 
     @GetMapping("/{albumId}/guest/details")
-    public ResponseEntity<?> getGuestAlbumDetails(@PathVariable UUID albumId) {
-        Optional<SharedAlbum> albumOpt = albumRepository.findById(albumId);
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getGuestAlbumDetails(@PathVariable UUID albumId,
+                                                  @RequestParam(required = false) String fields) {
+        PhotoFields photoFields;
+        try {
+            photoFields = PhotoFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
 
         if (albumOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        SharedAlbum album = albumOpt.get();
-
-        List<Photo> allPhotos = photoRepository.findByAlbumId(albumId);
-        List<com.grabpic.api.dto.PhotoResponse> publicPhotos = new ArrayList<>();
-
-        for (Photo photo : allPhotos) {
-            if (photo.getAccessMode() == AccessMode.PUBLIC) {
-                String secureViewUrl = s3StorageService.generateViewUrl(photo.getStorageUrl());
+        AlbumSummary album = albumOpt.get();
+        if (album.archived()) return restoring(albumId);
+        albumArchiveService.touch(albumId);
 
-                publicPhotos.add(new com.grabpic.api.dto.PhotoResponse(
-                        photo.getId().toString(),
-                        secureViewUrl,
-                        true,
-                        photo.isProcessed(),
-                        0,
-                        new ArrayList<>()
-                ));
+        // The manifest carries every field, so only full listings are redirected to it.
+        if (photoFields.isAll()) {
+            String manifestUrl = guestManifestPublisher.currentManifestUrl(albumId);
+            if (manifestUrl != null) {
+                return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(manifestUrl)).build();
             }
         }
 
+        List<com.grabpic.api.dto.PhotoResponse> publicPhotos = photoFields.isAll()
+                ? singleFlightCache.get(albumId, "guest-details",
+                        () -> guestManifestPublisher.buildPublicPhotos(albumId))
+                : singleFlightCache.get(albumId, "guest-details:" + photoFields.key(),
+                        () -> guestManifestPublisher.buildPublicPhotos(albumId, photoFields));
+        guestAlbumSize.record(publicPhotos.size());
+        if (photoFields.isAll()) guestManifestPublisher.ensurePublished(albumId);
+
         return ResponseEntity.ok().body(
                 java.util.Map.of(
-                        "title", album.getTitle(),
+                        "title", album.title(),
                         "publicPhotos", publicPhotos
                 )
         );
     }
 
+    @PutMapping("/{albumId}/photos/privacy")
+    public ResponseEntity<?> updatePhotosPrivacy(@PathVariable UUID albumId,
+                                                 @RequestParam boolean makePublic,
+                                                 @RequestBody PhotoIdsRequest request,
+                                                 @AuthenticationPrincipal Jwt jwt) {
+        List<UUID> photoIds = request.getPhotoIds();
+        if (photoIds == null || photoIds.isEmpty() || photoIds.size() > MAX_BULK_PHOTO_IDS) {
+            return ResponseEntity.badRequest().body("Provide between 1 and " + MAX_BULK_PHOTO_IDS + " photo IDs.");
+        }
+
+        Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
+        if (albumOpt.isEmpty()) return ResponseEntity.notFound().build();
+        if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
+            return ResponseEntity.status(403).body("You do not own this album.");
+        }
+
+        AccessMode nextMode = makePublic ? AccessMode.PUBLIC : AccessMode.PROTECTED;
+        List<PhotoBulkRepository.ChangedPhoto> changed =
+                photoBulkRepository.updateAccessMode(albumId, photoIds, nextMode);
+
+        List<SqsService.PhotoMessage> newlyProtected = nextMode == AccessMode.PROTECTED
+                ? changed.stream()
+                        .filter(photo -> !photo.processed())
+                        .map(photo -> new SqsService.PhotoMessage(photo.id().toString(), photo.storageUrl()))
+                        .toList()
+                : List.of();
+        sqsService.sendPhotosForProcessingBatch(newlyProtected);
+
+        if (!changed.isEmpty()) {
+            singleFlightCache.evictAlbum(albumId);
+            guestManifestPublisher.requestPublish(albumId);
+        }
+        return ResponseEntity.ok().body(java.util.Map.of(
+                "updated", changed.size(),
+                "queued", newlyProtected.size()
+        ));
+    }
+
     @PutMapping("/{albumId}/photos/{photoId}/privacy")
     public ResponseEntity<?> togglePhotoPrivacy(@PathVariable UUID albumId,
                                                 @PathVariable UUID photoId,
                                                 @RequestParam boolean makePublic,
                                                 @AuthenticationPrincipal Jwt jwt) {
         try {
-            Optional<SharedAlbum> albumOpt = albumRepository.findById(albumId);
+            Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
             if (albumOpt.isEmpty()) return ResponseEntity.notFound().build();
-            if (!albumOpt.get().getHostId().equals(jwt.getSubject())) {
+            if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
                 return ResponseEntity.status(403).body("You do not own this album.");
             }
 
@@ -352,6 +538,8 @@ public class AlbumController {
 
             photo.setAccessMode(nextMode);
             photoRepository.save(photo);
+            singleFlightCache.evictAlbum(albumId);
+            guestManifestPublisher.requestPublish(albumId);
 
             if (previousMode == AccessMode.PUBLIC
                     && nextMode == AccessMode.PROTECTED
@@ -366,7 +554,16 @@ public class AlbumController {
     }
 
     @PostMapping("/{albumId}/guest/search-results")
-    public ResponseEntity<?> getGuestSearchResults(@PathVariable UUID albumId, @RequestBody List<UUID> photoIds) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getGuestSearchResults(@PathVariable UUID albumId,
+                                                   @RequestParam(required = false) String fields,
+                                                   @RequestBody List<UUID> photoIds) {
+        PhotoFields photoFields;
+        try {
+            photoFields = PhotoFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
         if (photoIds == null || photoIds.isEmpty()) {
             return ResponseEntity.badRequest().body("No photo IDs provided.");
         }
@@ -375,43 +572,71 @@ public class AlbumController {
                     .body("Too many photo IDs. Maximum is " + MAX_GUEST_SEARCH_RESULTS_IDS + ".");
         }
 
-        Optional<SharedAlbum> albumOpt = albumRepository.findById(albumId);
+        Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
         if (albumOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        if (albumOpt.get().archived()) return restoring(albumId);
+        albumArchiveService.touch(albumId);
+
+        String cacheKey = "guest-search:" + (photoFields.isAll() ? "" : photoFields.key() + ":")
+                + photoIdSetKey(photoIds);
+        List<com.grabpic.api.dto.PhotoResponse> matchedPhotos = singleFlightCache.get(
+                albumId, cacheKey, () -> loadMatchedPhotos(albumId, photoIds, photoFields));
+        return ResponseEntity.ok(matchedPhotos);
+    }
 
-        List<Photo> allPhotos = photoRepository.findAllById(photoIds);
+    /**
+     * Read-only requests never rehydrate themselves: they queue the restore and ask the client to
+     * retry.
+     */
+    private ResponseEntity<?> restoring(UUID albumId) {
+        albumArchiveService.requestRehydration(albumId);
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body("This album is being restored from the archive. Please try again in a few seconds.");
+    }
+
+    private List<com.grabpic.api.dto.PhotoResponse> loadMatchedPhotos(UUID albumId, List<UUID> photoIds,
+                                                                      PhotoFields photoFields) {
         List<com.grabpic.api.dto.PhotoResponse> matchedPhotos = new ArrayList<>();
 
-        for (Photo photo : allPhotos) {
-            if (photo.getAlbum().getId().equals(albumId)) {
-                String secureViewUrl = s3StorageService.generateViewUrl(photo.getStorageUrl());
-
-                matchedPhotos.add(new com.grabpic.api.dto.PhotoResponse(
-                        photo.getId().toString(),
-                        secureViewUrl,
-                        photo.getAccessMode() == AccessMode.PUBLIC,
-                        photo.isProcessed(),
-                        0,
-                        new ArrayList<>()
-                ));
-            }
+        for (PhotoBulkRepository.ListedPhoto photo : photoBulkRepository.listPhotos(albumId, photoIds)) {
+            matchedPhotos.add(photoFields.toResponse(
+                    photo.id().toString(),
+                    () -> s3StorageService.generateViewUrl(photo.storageUrl()),
+                    photo.accessMode() == AccessMode.PUBLIC,
+                    photo.processed(),
+                    0,
+                    NO_FACE_BOXES
+            ));
+        }
+        return matchedPhotos;
+    }
+
+    private static String photoIdSetKey(List<UUID> photoIds) {
+        try {
+            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
+            photoIds.stream().distinct().sorted().forEach(id -> {
+                digest.update(id.toString().getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+                digest.update((byte) ',');
+            });
+            return java.util.HexFormat.of().formatHex(digest.digest());
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        return ResponseEntity.ok(matchedPhotos);
     }
 
     @PostMapping("/{albumId}/photos/backfill-processing")
     public ResponseEntity<?> backfillPhotoProcessing(@PathVariable UUID albumId,
                                                      @AuthenticationPrincipal Jwt jwt) {
-        Optional<SharedAlbum> albumOpt = albumRepository.findById(albumId);
+        Optional<AlbumSummary> albumOpt = albumAccessCache.find(albumId);
         if (albumOpt.isEmpty()) return ResponseEntity.notFound().build();
-        if (!albumOpt.get().getHostId().equals(jwt.getSubject())) {
+        if (!albumOpt.get().isOwnedBy(jwt.getSubject())) {
             return ResponseEntity.status(403).body("You do not own this album.");
         }
 
-        List<Photo> albumPhotos = photoRepository.findByAlbumId(albumId);
-        List<SqsService.PhotoMessage> unprocessed = albumPhotos.stream()
-                .filter(photo -> !photo.isProcessed())
+        List<SqsService.PhotoMessage> unprocessed = photoRepository.findByAlbumIdAndProcessedFalse(albumId).stream()
                 .map(photo -> new SqsService.PhotoMessage(photo.getId().toString(), photo.getStorageUrl()))
                 .toList();
 
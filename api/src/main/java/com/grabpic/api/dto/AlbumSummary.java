@@ -0,0 +1,10 @@
+package com.grabpic.api.dto;
+
+import java.util.UUID;
+
+public record AlbumSummary(UUID id, String hostId, String title, boolean archived, long version) {
+
+    public boolean isOwnedBy(String userId) {
+        return hostId.equals(userId);
+    }
+}
@@ -0,0 +1,101 @@
+package com.grabpic.api.dto;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code fields=} selection of a photo listing, e.g. {@code fields=id,processed}. Listings
+ * use it to skip URL signing and face loading for fields the client did not ask for. The ID is
+ * always included; no selection means every field.
+ */
+public final class PhotoFields {
+
+    public enum Field {
+        ID("id"),
+        VIEW_URL("viewUrl"),
+        IS_PUBLIC("isPublic"),
+        PROCESSED("processed"),
+        FACE_COUNT("faceCount"),
+        FACE_BOXES("faceBoxes");
+
+        private final String jsonName;
+
+        Field(String jsonName) {
+            this.jsonName = jsonName;
+        }
+
+        static Field fromJsonName(String name) {
+            for (Field field : values()) {
+                if (field.jsonName.equals(name)) return field;
+            }
+            return null;
+        }
+    }
+
+    public static final PhotoFields ALL = new PhotoFields(EnumSet.allOf(Field.class));
+
+    private static final String ALLOWED = Arrays.stream(Field.values())
+            .map(field -> field.jsonName)
+            .collect(Collectors.joining(", "));
+
+    private final Set<Field> fields;
+
+    private PhotoFields(Set<Field> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a comma-separated list of response field names.
+     *
+     * @throws IllegalArgumentException if a name is not a photo field
+     */
+    public static PhotoFields parse(String value) {
+        if (value == null || value.isBlank()) return ALL;
+
+        EnumSet<Field> selected = EnumSet.of(Field.ID);
+        for (String name : value.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) continue;
+            Field field = Field.fromJsonName(trimmed);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field '" + trimmed + "'. Allowed fields: " + ALLOWED + ".");
+            }
+            selected.add(field);
+        }
+        return selected.size() == Field.values().length ? ALL : new PhotoFields(selected);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    public boolean includes(Field field) {
+        return fields.contains(field);
+    }
+
+    public boolean needsFaces() {
+        return includes(Field.FACE_COUNT) || includes(Field.FACE_BOXES);
+    }
+
+    /** Stable name of the selection, for cache keys. */
+    public String key() {
+        return fields.stream().map(field -> field.jsonName).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Builds the response with only the selected fields; the view URL is signed only if selected.
+     */
+    public PhotoResponse toResponse(String id, Supplier<String> viewUrl, boolean isPublic, boolean processed,
+                                    int faceCount, int[] faceBoxes) {
+        return new PhotoResponse(
+                id,
+                includes(Field.VIEW_URL) ? viewUrl.get() : null,
+                includes(Field.IS_PUBLIC) ? isPublic : null,
+                includes(Field.PROCESSED) ? processed : null,
+                includes(Field.FACE_COUNT) ? faceCount : null,
+                includes(Field.FACE_BOXES) ? faceBoxes : null);
+    }
+}
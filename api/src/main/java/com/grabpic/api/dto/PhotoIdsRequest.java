@@ -0,0 +1,10 @@
+package com.grabpic.api.dto;
+
+import lombok.Data;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class PhotoIdsRequest {
+    private List<UUID> photoIds;
+}
@@ -2,20 +2,24 @@ package com.grabpic.api.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.util.List;
 
+/**
+ * A photo in a listing. Fields left out by a {@code fields=} selection are null and omitted.
+ */
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PhotoResponse {
     private String id;
     private String viewUrl;
 
     @JsonProperty("isPublic")
-    private boolean isPublic;
+    private Boolean isPublic;
 
-    private boolean processed;
-    private int faceCount;
-    private List<String> faceBoxes;
-}
\ No newline at end of file
+    private Boolean processed;
+    private Integer faceCount;
+    private int[] faceBoxes;
+}
@@ -4,6 +4,8 @@ import java.util.List;
 
 public class UploadUrlRequest {
     private List<Long> fileSizes;
+    private List<Boolean> publicFlags;
+    private List<String> checksums;
 
     public UploadUrlRequest() {}
 
@@ -14,4 +16,20 @@ public class UploadUrlRequest {
     public void setFileSizes(List<Long> fileSizes) {
         this.fileSizes = fileSizes;
     }
+
+    public List<Boolean> getPublicFlags() {
+        return publicFlags;
+    }
+
+    public void setPublicFlags(List<Boolean> publicFlags) {
+        this.publicFlags = publicFlags;
+    }
+
+    public List<String> getChecksums() {
+        return checksums;
+    }
+
+    public void setChecksums(List<String> checksums) {
+        this.checksums = checksums;
+    }
 }
@@ -0,0 +1,7 @@
+package com.grabpic.api.dto;
+
+import com.grabpic.api.service.S3StorageService;
+
+import java.util.List;
+
+public record UploadUrlsResponse(List<S3StorageService.PresignedUpload> uploads, boolean registeredOnUpload) {}
@@ -15,7 +15,7 @@ public class Photo {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "album_id", nullable = false)
     private SharedAlbum album;
 
@@ -28,6 +28,9 @@ public class Photo {
 
     private boolean processed = false;
 
+    @Column(length = 44)
+    private String contentHash;
+
     @JsonIgnore
     @OneToMany(mappedBy = "photo", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<PhotoEmbedding> faces;
@@ -2,6 +2,9 @@ package com.grabpic.api.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.util.UUID;
 
 @Data
@@ -16,6 +19,8 @@ public class PhotoEmbedding {
     @JoinColumn(name = "photo_id", nullable = false)
     private Photo photo;
 
-    @Column(columnDefinition = "jsonb")
-    private String boxArea;
-}
\ No newline at end of file
+    /** x, y, w, h */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(columnDefinition = "int4[]", insertable = false, updatable = false)
+    private int[] boxArea;
+}
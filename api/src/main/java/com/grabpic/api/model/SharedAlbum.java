@@ -28,8 +28,16 @@ public class SharedAlbum {
 
     private LocalDateTime createdAt;
 
+    private LocalDateTime lastActiveAt;
+
+    private LocalDateTime archivedAt;
+
+    @Column(insertable = false, updatable = false)
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        this.lastActiveAt = this.createdAt;
     }
 }
\ No newline at end of file
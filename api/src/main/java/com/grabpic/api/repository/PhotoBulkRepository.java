@@ -0,0 +1,377 @@
+package com.grabpic.api.repository;
+
+import com.grabpic.api.model.AccessMode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public class PhotoBulkRepository {
+
+    public record ChangedPhoto(UUID id, String storageUrl, boolean processed) {}
+
+    public record NewPhoto(String storageUrl, AccessMode accessMode, String contentHash) {}
+
+    public record InsertResult(List<ChangedPhoto> inserted, List<String> supersededUploads) {}
+
+    public record ListedPhoto(UUID id, String storageUrl, AccessMode accessMode, boolean processed) {}
+
+    /** A listed photo with its face boxes, four ints (x, y, w, h) per face. */
+    public record ListedPhotoWithFaces(ListedPhoto photo, int faceCount, int[] faceBoxes) {}
+
+    /** An album moved into or out of the archive, with its new version and the photos that moved. */
+    public record MovedAlbum(long version, List<String> storageUrls) {}
+
+    private record DuplicateSource(UUID id, String storageUrl) {}
+
+    private static final RowMapper<ListedPhoto> LISTED_PHOTO = (rs, rowNum) -> new ListedPhoto(
+            rs.getObject("id", UUID.class), rs.getString("storage_url"),
+            AccessMode.valueOf(rs.getString("access_mode")), rs.getBoolean("processed"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean hasEmbeddingColumn;
+
+    public PhotoBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Deletes the given photos and their face embeddings, ignoring IDs that are not in the album.
+     * Returns the storage keys of the photos that were actually deleted.
+     */
+    @Transactional
+    public List<String> deleteFromAlbum(UUID albumId, Collection<UUID> photoIds) {
+        UUID[] ids = photoIds.toArray(UUID[]::new);
+        jdbcTemplate.update("""
+                DELETE FROM photo_embeddings
+                WHERE photo_id IN (SELECT id FROM photos WHERE album_id = ? AND id = ANY(?))
+                """, albumId, ids);
+        return jdbcTemplate.queryForList("""
+                DELETE FROM photos
+                WHERE album_id = ? AND id = ANY(?)
+                RETURNING storage_url
+                """, String.class, albumId, ids);
+    }
+
+    /**
+     * Sets the access mode of the given photos in one statement. Only photos in the album whose
+     * mode actually changes are updated and returned.
+     */
+    public List<ChangedPhoto> updateAccessMode(UUID albumId, Collection<UUID> photoIds, AccessMode accessMode) {
+        return jdbcTemplate.query("""
+                UPDATE photos SET access_mode = ?
+                WHERE album_id = ? AND id = ANY(?) AND access_mode <> ?
+                RETURNING id, storage_url, processed
+                """,
+                (rs, rowNum) -> new ChangedPhoto(
+                        rs.getObject("id", UUID.class), rs.getString("storage_url"), rs.getBoolean("processed")),
+                accessMode.name(), albumId, photoIds.toArray(UUID[]::new), accessMode.name());
+    }
+
+    /**
+     * Inserts photos, skipping storage keys already registered in the album and doing nothing if
+     * the album no longer exists. A photo whose content hash matches an already processed photo
+     * in one of the host's albums reuses that photo's object and gets a copy of its embeddings,
+     * so it is inserted as processed; its own upload is returned as superseded.
+     */
+    @Transactional
+    public InsertResult insertIfAbsent(UUID albumId, List<NewPhoto> photos) {
+        Map<String, DuplicateSource> sources = findProcessedDuplicates(albumId, photos);
+
+        int size = photos.size();
+        UUID[] ids = new UUID[size];
+        String[] storageUrls = new String[size];
+        String[] accessModes = new String[size];
+        String[] contentHashes = new String[size];
+        boolean[] processed = new boolean[size];
+        Map<UUID, UUID> copyFrom = new HashMap<>();
+        List<String> superseded = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            NewPhoto photo = photos.get(i);
+            DuplicateSource source = photo.contentHash() == null ? null : sources.get(photo.contentHash());
+            ids[i] = UUID.randomUUID();
+            storageUrls[i] = source == null ? photo.storageUrl() : source.storageUrl();
+            accessModes[i] = photo.accessMode().name();
+            contentHashes[i] = photo.contentHash();
+            processed[i] = source != null;
+            if (source != null) {
+                copyFrom.put(ids[i], source.id());
+                superseded.add(photo.storageUrl());
+            }
+        }
+
+        List<ChangedPhoto> inserted = jdbcTemplate.query("""
+                INSERT INTO photos (id, album_id, storage_url, access_mode, processed, content_hash)
+                SELECT new.id, ?, new.storage_url, new.access_mode, new.processed, new.content_hash
+                FROM unnest(?::uuid[], ?::text[], ?::text[], ?::boolean[], ?::text[])
+                     AS new (id, storage_url, access_mode, processed, content_hash)
+                WHERE EXISTS (SELECT 1 FROM shared_albums WHERE id = ?)
+                ON CONFLICT (album_id, storage_url) DO NOTHING
+                RETURNING id, storage_url, processed
+                """,
+                (rs, rowNum) -> new ChangedPhoto(
+                        rs.getObject("id", UUID.class), rs.getString("storage_url"), rs.getBoolean("processed")),
+                albumId, ids, storageUrls, accessModes, processed, contentHashes, albumId);
+
+        List<UUID> targets = new ArrayList<>();
+        List<UUID> copySources = new ArrayList<>();
+        for (ChangedPhoto photo : inserted) {
+            UUID source = copyFrom.get(photo.id());
+            if (source != null) {
+                targets.add(photo.id());
+                copySources.add(source);
+            }
+        }
+        if (!targets.isEmpty()) {
+            String embedding = hasEmbeddingColumn() ? ", embedding" : "";
+            jdbcTemplate.update("""
+                    INSERT INTO photo_embeddings (photo_id, box_area%s)
+                    SELECT pair.target, e.box_area%s
+                    FROM unnest(?::uuid[], ?::uuid[]) AS pair (target, source)
+                    JOIN photo_embeddings e ON e.photo_id = pair.source
+                    """.formatted(embedding, embedding.replace("embedding", "e.embedding")),
+                    targets.toArray(UUID[]::new), copySources.toArray(UUID[]::new));
+        }
+
+        if (!inserted.isEmpty()) {
+            jdbcTemplate.update("UPDATE shared_albums SET last_active_at = now() WHERE id = ?", albumId);
+        }
+        return new InsertResult(inserted, superseded);
+    }
+
+    private Map<String, DuplicateSource> findProcessedDuplicates(UUID albumId, List<NewPhoto> photos) {
+        String[] hashes = photos.stream()
+                .map(NewPhoto::contentHash)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(String[]::new);
+        if (hashes.length == 0) return Map.of();
+
+        // FOR SHARE keeps a source from being deleted, and its object cleaned up, until the new
+        // row that reuses its object has committed.
+        Map<String, DuplicateSource> sources = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT p.content_hash, p.id, p.storage_url
+                FROM photos p
+                JOIN shared_albums a ON a.id = p.album_id
+                WHERE p.content_hash = ANY(?) AND p.processed
+                  AND a.host_id = (SELECT host_id FROM shared_albums WHERE id = ?)
+                ORDER BY p.content_hash, p.id
+                FOR SHARE OF p
+                """,
+                rs -> {
+                    sources.putIfAbsent(rs.getString("content_hash"),
+                            new DuplicateSource(rs.getObject("id", UUID.class), rs.getString("storage_url")));
+                },
+                hashes, albumId);
+        return sources;
+    }
+
+    /**
+     * Returns the keys that no photo, hot or archived, references any more. Deduplicated photos
+     * share objects, so this must be checked before deleting anything from S3.
+     */
+    public List<String> unreferenced(Collection<String> storageUrls) {
+        if (storageUrls.isEmpty()) return List.of();
+        return jdbcTemplate.queryForList("""
+                SELECT key FROM unnest(?::text[]) AS key
+                WHERE NOT EXISTS (SELECT 1 FROM photos WHERE storage_url = key)
+                  AND NOT EXISTS (SELECT 1 FROM archived_photos WHERE storage_url = key)
+                """, String.class, (Object) storageUrls.toArray(String[]::new));
+    }
+
+    /**
+     * Returns the keys that no hot photo references, i.e. objects only archived albums use.
+     */
+    public List<String> archivedOnly(Collection<String> storageUrls) {
+        if (storageUrls.isEmpty()) return List.of();
+        return jdbcTemplate.queryForList("""
+                SELECT key FROM unnest(?::text[]) AS key
+                WHERE NOT EXISTS (SELECT 1 FROM photos WHERE storage_url = key)
+                """, String.class, (Object) storageUrls.toArray(String[]::new));
+    }
+
+    /**
+     * Moves an album's photos and face embeddings into the archive tables and marks the album
+     * archived. Runs in its own write transaction so it can be called from read-only requests.
+     * Returns the archived photos, or nothing if the album was not hot.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<MovedAlbum> archiveAlbum(UUID albumId) {
+        List<Long> version = jdbcTemplate.queryForList("""
+                UPDATE shared_albums SET archived_at = now(), version = version + 1
+                WHERE id = ? AND archived_at IS NULL
+                RETURNING version
+                """, Long.class, albumId);
+        if (version.isEmpty()) return Optional.empty();
+
+        String embedding = hasEmbeddingColumn() ? ", embedding" : "";
+        jdbcTemplate.update("""
+                INSERT INTO archived_photos (id, album_id, storage_url, access_mode, processed, content_hash)
+                SELECT id, album_id, storage_url, access_mode, processed, content_hash
+                FROM photos WHERE album_id = ?
+                """, albumId);
+        jdbcTemplate.update("""
+                INSERT INTO archived_photo_embeddings (id, photo_id, box_area%s)
+                SELECT e.id, e.photo_id, e.box_area%s
+                FROM photo_embeddings e JOIN photos p ON p.id = e.photo_id
+                WHERE p.album_id = ?
+                """.formatted(embedding, embedding.replace("embedding", "e.embedding")), albumId);
+        jdbcTemplate.update("""
+                DELETE FROM photo_embeddings
+                WHERE photo_id IN (SELECT id FROM photos WHERE album_id = ?)
+                """, albumId);
+        return Optional.of(new MovedAlbum(version.get(0), jdbcTemplate.queryForList(
+                "DELETE FROM photos WHERE album_id = ? RETURNING storage_url", String.class, albumId)));
+    }
+
+    /**
+     * Moves an archived album's photos and face embeddings back into the hot tables. Returns the
+     * restored photos, or nothing if the album was not archived.
+     * <p>
+     * A key can have been registered again while the album was archived, e.g. by the S3 event
+     * path. The processed copy wins, preferring the archived one: a hot duplicate that is not
+     * better is replaced, and an archived row is only dropped when a processed hot row already
+     * covers the same object.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<MovedAlbum> rehydrateAlbum(UUID albumId) {
+        List<Long> version = jdbcTemplate.queryForList("""
+                UPDATE shared_albums SET archived_at = NULL, last_active_at = now(), version = version + 1
+                WHERE id = ? AND archived_at IS NOT NULL
+                RETURNING version
+                """, Long.class, albumId);
+        if (version.isEmpty()) return Optional.empty();
+
+        jdbcTemplate.update("""
+                DELETE FROM photos p USING archived_photos a
+                WHERE a.album_id = ? AND p.album_id = a.album_id AND p.storage_url = a.storage_url
+                  AND (a.processed OR NOT p.processed)
+                """, albumId);
+
+        String embedding = hasEmbeddingColumn() ? ", embedding" : "";
+        List<ChangedPhoto> restored = jdbcTemplate.query("""
+                INSERT INTO photos (id, album_id, storage_url, access_mode, processed, content_hash)
+                SELECT id, album_id, storage_url, access_mode, processed, content_hash
+                FROM archived_photos WHERE album_id = ?
+                ON CONFLICT (album_id, storage_url) DO NOTHING
+                RETURNING id, storage_url, processed
+                """,
+                (rs, rowNum) -> new ChangedPhoto(
+                        rs.getObject("id", UUID.class), rs.getString("storage_url"), rs.getBoolean("processed")),
+                albumId);
+        UUID[] restoredIds = restored.stream().map(ChangedPhoto::id).toArray(UUID[]::new);
+        jdbcTemplate.update("""
+                INSERT INTO photo_embeddings (id, photo_id, box_area%s)
+                SELECT e.id, e.photo_id, e.box_area%s
+                FROM archived_photo_embeddings e
+                WHERE e.photo_id = ANY(?)
+                """.formatted(embedding, embedding.replace("embedding", "e.embedding")), (Object) restoredIds);
+        jdbcTemplate.update("""
+                DELETE FROM archived_photos a
+                WHERE a.album_id = ?
+                  AND (a.id = ANY(?)
+                       OR EXISTS (SELECT 1 FROM photos p
+                                  WHERE p.album_id = a.album_id AND p.storage_url = a.storage_url
+                                    AND p.processed))
+                """, albumId, restoredIds);
+        return Optional.of(new MovedAlbum(version.get(0), restored.stream().map(ChangedPhoto::storageUrl).toList()));
+    }
+
+    /**
+     * Lists the album's photos without loading entities or faces, for listings that do not
+     * return face data.
+     */
+    public List<ListedPhoto> listPhotos(UUID albumId) {
+        return jdbcTemplate.query("""
+                SELECT id, storage_url, access_mode, processed FROM photos WHERE album_id = ?
+                """, LISTED_PHOTO, albumId);
+    }
+
+    /**
+     * Like {@link #listPhotos(UUID)}, with each photo's faces aggregated in the same query.
+     * Faces without a box count but get zeros.
+     */
+    public List<ListedPhotoWithFaces> listPhotosWithFaces(UUID albumId) {
+        return jdbcTemplate.query("""
+                SELECT p.id, p.storage_url, p.access_mode, p.processed, COUNT(e.id) AS face_count,
+                       array_agg(COALESCE(e.box_area, ARRAY[0, 0, 0, 0]) ORDER BY e.id)
+                           FILTER (WHERE e.id IS NOT NULL) AS face_boxes
+                FROM photos p
+                LEFT JOIN photo_embeddings e ON e.photo_id = p.id
+                WHERE p.album_id = ?
+                GROUP BY p.id
+                """,
+                (rs, rowNum) -> {
+                    int faceCount = rs.getInt("face_count");
+                    int[] boxes = new int[faceCount * 4];
+                    Array array = rs.getArray("face_boxes");
+                    if (array != null) {
+                        Object[] faces = (Object[]) array.getArray();
+                        for (int i = 0; i < faces.length; i++) {
+                            Object[] box = (Object[]) faces[i];
+                            for (int j = 0; j < 4; j++) {
+                                if (box[j] != null) boxes[i * 4 + j] = (Integer) box[j];
+                            }
+                        }
+                        array.free();
+                    }
+                    return new ListedPhotoWithFaces(LISTED_PHOTO.mapRow(rs, rowNum), faceCount, boxes);
+                },
+                albumId);
+    }
+
+    /**
+     * Like {@link #listPhotos(UUID)}, restricted to the given photos. IDs outside the album are
+     * ignored.
+     */
+    public List<ListedPhoto> listPhotos(UUID albumId, Collection<UUID> photoIds) {
+        return jdbcTemplate.query("""
+                SELECT id, storage_url, access_mode, processed FROM photos
+                WHERE album_id = ? AND id = ANY(?)
+                """, LISTED_PHOTO, albumId, photoIds.toArray(UUID[]::new));
+    }
+
+    /**
+     * Returns the storage keys of every photo in the album, hot or archived.
+     */
+    public List<String> storageUrls(UUID albumId) {
+        return jdbcTemplate.queryForList("""
+                SELECT storage_url FROM photos WHERE album_id = ?
+                UNION ALL
+                SELECT storage_url FROM archived_photos WHERE album_id = ?
+                """, String.class, albumId, albumId);
+    }
+
+    public long countArchivedByHostId(String hostId) {
+        Long count = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM archived_photos p JOIN shared_albums a ON a.id = p.album_id
+                WHERE a.host_id = ?
+                """, Long.class, hostId);
+        return count == null ? 0 : count;
+    }
+
+    private boolean hasEmbeddingColumn() {
+        Boolean cached = hasEmbeddingColumn;
+        if (cached == null) {
+            cached = Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+                    SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                                   WHERE table_name = 'photo_embeddings' AND column_name = 'embedding')
+                    """, Boolean.class));
+            hasEmbeddingColumn = cached;
+        }
+        return cached;
+    }
+}
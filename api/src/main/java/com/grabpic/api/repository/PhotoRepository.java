@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.UUID;
 
 public interface PhotoRepository extends JpaRepository<Photo, UUID> {
-    List<Photo> findByAlbumId(UUID albumId);
+    List<Photo> findByAlbumIdAndProcessedFalse(UUID albumId);
     long countByAlbumId(UUID albumId);
 
     @Query("SELECT COUNT(p) FROM Photo p WHERE p.album.hostId = :hostId")
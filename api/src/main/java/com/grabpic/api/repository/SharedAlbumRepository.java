@@ -1,11 +1,33 @@
 package com.grabpic.api.repository;
 
+import com.grabpic.api.dto.AlbumSummary;
 import com.grabpic.api.model.SharedAlbum;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface SharedAlbumRepository extends JpaRepository<SharedAlbum, UUID> {
     List<SharedAlbum> findByHostId(String hostId);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.grabpic.api.dto.AlbumSummary(a.id, a.hostId, a.title, "
+            + "CASE WHEN a.archivedAt IS NULL THEN false ELSE true END, a.version) FROM SharedAlbum a WHERE a.id = :id")
+    Optional<AlbumSummary> findSummaryById(@Param("id") UUID id);
+
+    @Query("SELECT a.id FROM SharedAlbum a WHERE a.archivedAt IS NULL AND a.lastActiveAt < :cutoff "
+            + "ORDER BY a.lastActiveAt")
+    List<UUID> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SharedAlbum a SET a.lastActiveAt = :now "
+            + "WHERE a.id = :id AND a.archivedAt IS NULL AND a.lastActiveAt < :before")
+    int markActive(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("before") LocalDateTime before);
+}
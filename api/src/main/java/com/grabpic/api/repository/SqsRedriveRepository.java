@@ -0,0 +1,50 @@
+package com.grabpic.api.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/** Messages waiting to be re-driven to SQS. */
+@Repository
+public class SqsRedriveRepository {
+
+    public record RedriveMessage(long id, String body) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SqsRedriveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void save(List<String> bodies) {
+        jdbcTemplate.batchUpdate("INSERT INTO sqs_redrive (body) VALUES (?)", bodies, bodies.size(),
+                (ps, body) -> ps.setString(1, body));
+    }
+
+    /**
+     * Claims up to {@code limit} available messages, oldest first, hiding them from other
+     * instances for the lease. Messages that are not deleted before it runs out are claimed again.
+     */
+    public List<RedriveMessage> claim(int limit, Duration lease) {
+        return jdbcTemplate.query("""
+                UPDATE sqs_redrive SET available_at = now() + ? * interval '1 millisecond'
+                WHERE id IN (
+                    SELECT id FROM sqs_redrive
+                    WHERE available_at <= now()
+                    ORDER BY id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id, body
+                """,
+                (rs, rowNum) -> new RedriveMessage(rs.getLong("id"), rs.getString("body")),
+                lease.toMillis(), limit);
+    }
+
+    public void delete(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        jdbcTemplate.update("DELETE FROM sqs_redrive WHERE id = ANY(?)", (Object) ids.toArray(Long[]::new));
+    }
+}
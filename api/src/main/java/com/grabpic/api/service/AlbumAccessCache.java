@@ -0,0 +1,231 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.ReplicaRoutingContext;
+import com.grabpic.api.dto.AlbumSummary;
+import com.grabpic.api.repository.SharedAlbumRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Album summaries for access checks, cached per instance and in Redis. Entries carry the album's
+ * version: an eviction leaves a version floor behind, and a fill that read an older version (a
+ * miss that raced the change, or a lagging replica) is served but not cached.
+ * <p>
+ * For one replica lag window after a versioned eviction the album is settling: lookups pin the
+ * request to the primary, so the summary and everything the request reads after it agree.
+ */
+@Service
+public class AlbumAccessCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AlbumAccessCache.class);
+
+    private static final String KEY_PREFIX = "album:";
+    private static final String INVALIDATION_CHANNEL = "album-invalidations";
+
+    // Writes the summary unless the key holds the same or a newer version, or a floor above it.
+    private static final String WRITE_SCRIPT = """
+            local data = redis.call('hmget', KEYS[1], 'version', 'floor', 'settle')
+            local version = tonumber(ARGV[1])
+            if (data[1] and tonumber(data[1]) >= version) or (data[2] and tonumber(data[2]) > version) then
+                return 0
+            end
+            redis.call('del', KEYS[1])
+            redis.call('hset', KEYS[1], 'version', ARGV[1], 'hostId', ARGV[2], 'title', ARGV[3], 'archived', ARGV[4])
+            if data[3] then redis.call('hset', KEYS[1], 'settle', data[3]) end
+            redis.call('pexpire', KEYS[1], ARGV[5])
+            return 1
+            """;
+
+    // Replaces the entry with a floor, keeping the highest floor if two evictions race.
+    private static final String EVICT_SCRIPT = """
+            local floor = tonumber(redis.call('hget', KEYS[1], 'floor'))
+            if floor and floor >= tonumber(ARGV[1]) then
+                redis.call('pexpire', KEYS[1], ARGV[2])
+                return 0
+            end
+            redis.call('del', KEYS[1])
+            redis.call('hset', KEYS[1], 'floor', ARGV[1], 'settle', ARGV[3])
+            redis.call('pexpire', KEYS[1], ARGV[2])
+            return 1
+            """;
+
+    private final SharedAlbumRepository albumRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final long nearCacheTtlNanos;
+    private final Duration sharedCacheTtl;
+    private final int nearCacheMaxEntries;
+    private final Duration settleWindow;
+
+    private final DefaultRedisScript<Long> writeScript = new DefaultRedisScript<>(WRITE_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> evictScript = new DefaultRedisScript<>(EVICT_SCRIPT, Long.class);
+
+    private final ConcurrentHashMap<UUID, CachedAlbum> nearCache = new ConcurrentHashMap<>();
+
+    public AlbumAccessCache(SharedAlbumRepository albumRepository,
+                            StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${album-cache.near-ttl:30s}") Duration nearCacheTtl,
+                            @Value("${album-cache.shared-ttl:1h}") Duration sharedCacheTtl,
+                            @Value("${album-cache.near-max-entries:10000}") int nearCacheMaxEntries,
+                            @Value("${spring.datasource.replica.lag-window:5s}") Duration settleWindow) {
+        this.albumRepository = albumRepository;
+        this.redisTemplate = redisTemplate;
+        this.nearCacheTtlNanos = nearCacheTtl.toNanos();
+        this.sharedCacheTtl = sharedCacheTtl;
+        this.nearCacheMaxEntries = nearCacheMaxEntries;
+        this.settleWindow = settleWindow;
+
+        listenerContainer.addMessageListener(
+                (message, pattern) -> evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Looks the album up, pinning the request to the primary first while the album is settling.
+     * Call it before the request runs any other query.
+     */
+    public Optional<AlbumSummary> find(UUID albumId) {
+        CachedAlbum cached = nearCache.get(albumId);
+        if (cached != null && cached.summary() != null && cached.expiresAt() - System.nanoTime() > 0) {
+            pinWhileSettling(cached.settleUntil());
+            return Optional.of(cached.summary());
+        }
+
+        SharedEntry shared = readShared(albumId);
+        long settleUntil = Math.max(shared.settleUntil(), cached == null ? 0 : cached.settleUntil());
+        pinWhileSettling(settleUntil);
+
+        AlbumSummary summary = shared.summary();
+        if (summary == null) {
+            summary = albumRepository.findSummaryById(albumId).orElse(null);
+            if (summary == null) {
+                nearCache.remove(albumId);
+                return Optional.empty();
+            }
+            if (!writeShared(summary)) return Optional.of(summary);
+        }
+
+        putLocal(summary, settleUntil);
+        return Optional.of(summary);
+    }
+
+    /**
+     * Drops the cached summary of a deleted album. Nothing read before the delete can be cached
+     * again.
+     */
+    public void evict(UUID albumId) {
+        evict(albumId, Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * Drops the cached summary after a change that moved the album to {@code version}. Until the
+     * shared entry expires, only summaries of at least that version are cached again, and the
+     * album settles for one replica lag window.
+     */
+    public void evict(UUID albumId, long version) {
+        evict(albumId, version, System.currentTimeMillis() + settleWindow.toMillis());
+    }
+
+    private void evict(UUID albumId, long version, long settleUntil) {
+        evictLocal(albumId, version, settleUntil);
+        try {
+            redisTemplate.execute(evictScript, List.of(KEY_PREFIX + albumId),
+                    Long.toString(version), Long.toString(sharedCacheTtl.toMillis()), Long.toString(settleUntil));
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, albumId + " " + version + " " + settleUntil);
+        } catch (Exception e) {
+            log.warn("Redis album cache invalidation failed for {}: {}", albumId, e.getMessage());
+        }
+    }
+
+    private static void pinWhileSettling(long settleUntil) {
+        if (settleUntil > System.currentTimeMillis()) ReplicaRoutingContext.pinPrimary();
+    }
+
+    private SharedEntry readShared(UUID albumId) {
+        try {
+            List<Object> values = redisTemplate.opsForHash()
+                    .multiGet(KEY_PREFIX + albumId, List.of("hostId", "title", "archived", "version", "settle"));
+            long settleUntil = values.get(4) == null ? 0 : Long.parseLong((String) values.get(4));
+            if (values.subList(0, 4).contains(null)) return new SharedEntry(null, settleUntil);
+            return new SharedEntry(new AlbumSummary(albumId, (String) values.get(0), (String) values.get(1),
+                    Boolean.parseBoolean((String) values.get(2)), Long.parseLong((String) values.get(3))), settleUntil);
+        } catch (Exception e) {
+            log.warn("Redis album cache read failed (falling back to DB): {}", e.getMessage());
+            return new SharedEntry(null, 0);
+        }
+    }
+
+    /**
+     * Returns false if Redis holds a newer version, in which case the summary must not be cached
+     * locally either.
+     */
+    private boolean writeShared(AlbumSummary summary) {
+        try {
+            Long written = redisTemplate.execute(writeScript, List.of(KEY_PREFIX + summary.id()),
+                    Long.toString(summary.version()), summary.hostId(), summary.title(),
+                    Boolean.toString(summary.archived()), Long.toString(sharedCacheTtl.toMillis()));
+            return written == null || written == 1L;
+        } catch (Exception e) {
+            log.warn("Redis album cache write failed: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void putLocal(AlbumSummary summary, long settleUntil) {
+        if (nearCache.size() >= nearCacheMaxEntries) {
+            pruneLocal();
+        }
+        CachedAlbum fresh = new CachedAlbum(summary, summary.version(), System.nanoTime() + nearCacheTtlNanos,
+                settleUntil);
+        nearCache.compute(summary.id(), (id, existing) ->
+                existing != null && existing.expiresAt() - System.nanoTime() > 0
+                        && existing.version() > summary.version() ? existing : fresh);
+    }
+
+    /** Drops expired entries, then arbitrary ones, until the near cache is back under 90% of its cap. */
+    private void pruneLocal() {
+        long now = System.nanoTime();
+        nearCache.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        int target = nearCacheMaxEntries - Math.max(1, nearCacheMaxEntries / 10);
+        Iterator<UUID> ids = nearCache.keySet().iterator();
+        while (nearCache.size() > target && ids.hasNext()) {
+            ids.next();
+            ids.remove();
+        }
+    }
+
+    private void evictLocal(UUID albumId, long version, long settleUntil) {
+        nearCache.merge(albumId, new CachedAlbum(null, version, System.nanoTime() + nearCacheTtlNanos, settleUntil),
+                (existing, floor) -> existing.summary() == null && existing.version() > version ? existing : floor);
+    }
+
+    private void evictLocal(String message) {
+        try {
+            String[] parts = message.split(" ", 3);
+            evictLocal(UUID.fromString(parts[0]),
+                    parts.length > 1 ? Long.parseLong(parts[1]) : Long.MAX_VALUE,
+                    parts.length > 2 ? Long.parseLong(parts[2]) : 0);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed album invalidation message: {}", message);
+        }
+    }
+
+    /** A cached summary, or with no summary a version floor left behind by an eviction. */
+    private record CachedAlbum(AlbumSummary summary, long version, long expiresAt, long settleUntil) {}
+
+    private record SharedEntry(AlbumSummary summary, long settleUntil) {}
+}
@@ -0,0 +1,236 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.ReplicaRoutingContext;
+import com.grabpic.api.dto.AlbumSummary;
+import com.grabpic.api.repository.PhotoBulkRepository;
+import com.grabpic.api.repository.SharedAlbumRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Moves idle albums out of the hot photo tables and into S3 Glacier Instant Retrieval, and
+ * brings them back the first time someone opens them again. Views keep an album's
+ * last_active_at current, at most once per touch interval.
+ */
+@Service
+public class AlbumArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AlbumArchiveService.class);
+
+    private static final String LOCK_KEY = "album-archive:lock";
+
+    private final PhotoBulkRepository photoBulkRepository;
+    private final SharedAlbumRepository albumRepository;
+    private final S3StorageService s3StorageService;
+    private final AlbumAccessCache albumAccessCache;
+    private final SingleFlightCache singleFlightCache;
+    private final GuestManifestPublisher guestManifestPublisher;
+    private final StringRedisTemplate redisTemplate;
+
+    private final boolean enabled;
+    private final Duration interval;
+    private final Duration inactiveAfter;
+    private final int batchSize;
+    private final Duration lockTtl;
+    private final Duration touchInterval;
+
+    private final ScheduledExecutorService executor;
+    private final ScheduledExecutorService rehydrateExecutor;
+    private final Set<UUID> rehydrating = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<UUID, Long> touchedAt = new ConcurrentHashMap<>();
+
+    public AlbumArchiveService(PhotoBulkRepository photoBulkRepository,
+                               SharedAlbumRepository albumRepository,
+                               S3StorageService s3StorageService,
+                               AlbumAccessCache albumAccessCache,
+                               SingleFlightCache singleFlightCache,
+                               GuestManifestPublisher guestManifestPublisher,
+                               StringRedisTemplate redisTemplate,
+                               @Value("${album-archive.enabled:false}") boolean enabled,
+                               @Value("${album-archive.interval:24h}") Duration interval,
+                               @Value("${album-archive.inactive-after:180d}") Duration inactiveAfter,
+                               @Value("${album-archive.batch-size:50}") int batchSize,
+                               @Value("${album-archive.lock-ttl:1h}") Duration lockTtl,
+                               @Value("${album-archive.touch-interval:24h}") Duration touchInterval) {
+        this.photoBulkRepository = photoBulkRepository;
+        this.albumRepository = albumRepository;
+        this.s3StorageService = s3StorageService;
+        this.albumAccessCache = albumAccessCache;
+        this.singleFlightCache = singleFlightCache;
+        this.guestManifestPublisher = guestManifestPublisher;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.inactiveAfter = inactiveAfter;
+        this.batchSize = batchSize;
+        this.lockTtl = lockTtl;
+        this.touchInterval = touchInterval;
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "album-archive");
+            t.setDaemon(true);
+            return t;
+        });
+        this.rehydrateExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "album-rehydrate");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::forgetOldTouches, touchInterval.toMillis(), touchInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        if (!enabled) return;
+        executor.scheduleWithFixedDelay(this::archiveInactive, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        rehydrateExecutor.shutdownNow();
+    }
+
+    /**
+     * Archives the album. Its objects are tagged for the Glacier IR transition in the background,
+     * except those a hot photo in another album still shares.
+     */
+    public void archive(UUID albumId) {
+        PhotoBulkRepository.MovedAlbum moved = photoBulkRepository.archiveAlbum(albumId).orElse(null);
+        if (moved == null) return;
+
+        evict(albumId, moved.version());
+        guestManifestPublisher.removeAlbum(albumId);
+        List<String> keys = moved.storageUrls();
+        if (!keys.isEmpty()) {
+            executor.execute(() -> forEachKey(photoBulkRepository.archivedOnly(keys), s3StorageService::markArchived));
+        }
+    }
+
+    /**
+     * Restores an archived album before a write request adds to it. The rest of the request is
+     * pinned to the primary so it sees the restored rows; objects go back to S3 Standard in the
+     * background. Read-only requests use {@link #requestRehydration} instead.
+     */
+    public void rehydrateIfArchived(AlbumSummary album) {
+        if (!album.archived()) return;
+
+        rehydrate(album.id());
+        ReplicaRoutingContext.pinPrimary();
+    }
+
+    /**
+     * Restores an archived album in the background, once per album at a time, so read-only
+     * requests can answer "try again" without writing themselves.
+     */
+    public void requestRehydration(UUID albumId) {
+        if (!rehydrating.add(albumId)) return;
+        try {
+            rehydrateExecutor.execute(() -> {
+                try {
+                    rehydrate(albumId);
+                } catch (Exception e) {
+                    log.warn("Rehydrating album {} failed: {}", albumId, e.getMessage());
+                } finally {
+                    rehydrating.remove(albumId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rehydrating.remove(albumId);
+        }
+    }
+
+    /**
+     * Records that the album was viewed. last_active_at is written in the background, at most
+     * once per touch interval per album and instance.
+     */
+    public void touch(UUID albumId) {
+        long now = System.nanoTime();
+        Long last = touchedAt.get(albumId);
+        if (last != null && now - last < touchInterval.toNanos()) return;
+        touchedAt.put(albumId, now);
+
+        try {
+            executor.execute(() -> {
+                try {
+                    LocalDateTime at = LocalDateTime.now();
+                    albumRepository.markActive(albumId, at, at.minus(touchInterval));
+                } catch (Exception e) {
+                    log.debug("Could not mark album {} active: {}", albumId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            touchedAt.remove(albumId);
+        }
+    }
+
+    private void rehydrate(UUID albumId) {
+        PhotoBulkRepository.MovedAlbum moved = photoBulkRepository.rehydrateAlbum(albumId).orElse(null);
+        if (moved == null) return;
+
+        evict(albumId, moved.version());
+        List<String> keys = moved.storageUrls();
+        if (!keys.isEmpty()) {
+            log.info("Rehydrated archived album {} ({} photos)", albumId, keys.size());
+            executor.execute(() -> forEachKey(keys, s3StorageService::restoreFromArchive));
+        }
+    }
+
+    private void forgetOldTouches() {
+        long now = System.nanoTime();
+        touchedAt.values().removeIf(last -> now - last >= touchInterval.toNanos());
+    }
+
+    private void archiveInactive() {
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, UUID.randomUUID().toString(), lockTtl);
+            if (!Boolean.TRUE.equals(acquired)) return;
+
+            LocalDateTime cutoff = LocalDateTime.now().minus(inactiveAfter);
+            List<UUID> albumIds = albumRepository.findArchivableIds(cutoff, Limit.of(batchSize));
+            for (UUID albumId : albumIds) {
+                archive(albumId);
+            }
+            if (!albumIds.isEmpty()) log.info("Archived {} inactive albums", albumIds.size());
+        } catch (Exception e) {
+            log.warn("Album archival run failed: {}", e.getMessage());
+        }
+    }
+
+    private void evict(UUID albumId, long version) {
+        albumAccessCache.evict(albumId, version);
+        singleFlightCache.evictAlbum(albumId);
+    }
+
+    private static void forEachKey(List<String> keys, Consumer<String> action) {
+        int failed = 0;
+        for (String key : keys) {
+            try {
+                action.accept(key);
+            } catch (Exception e) {
+                failed++;
+            }
+        }
+        if (failed > 0) log.warn("Storage class change failed for {} of {} objects", failed, keys.size());
+    }
+}
@@ -0,0 +1,193 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.ReplicaRoutingContext;
+import com.grabpic.api.dto.AlbumSummary;
+import com.grabpic.api.dto.PhotoFields;
+import com.grabpic.api.dto.PhotoResponse;
+import com.grabpic.api.model.AccessMode;
+import com.grabpic.api.repository.PhotoBulkRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class GuestManifestPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(GuestManifestPublisher.class);
+
+    private static final String POINTER_PREFIX = "manifest:";
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+    private static final int[] NO_FACE_BOXES = new int[0];
+
+    private final PhotoBulkRepository photoBulkRepository;
+    private final AlbumAccessCache albumAccessCache;
+    private final S3StorageService s3StorageService;
+    private final StringRedisTemplate redisTemplate;
+
+    private final boolean enabled;
+    private final Duration debounce;
+    private final Duration manifestTtl;
+    private final Duration linkTtl;
+
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<UUID, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+    public GuestManifestPublisher(PhotoBulkRepository photoBulkRepository,
+                                  AlbumAccessCache albumAccessCache,
+                                  S3StorageService s3StorageService,
+                                  StringRedisTemplate redisTemplate,
+                                  @Value("${guest-manifest.enabled:false}") boolean enabled,
+                                  @Value("${guest-manifest.debounce:2s}") Duration debounce,
+                                  @Value("${guest-manifest.ttl:6h}") Duration manifestTtl,
+                                  @Value("${guest-manifest.link-ttl:10m}") Duration linkTtl) {
+        this.photoBulkRepository = photoBulkRepository;
+        this.albumAccessCache = albumAccessCache;
+        this.s3StorageService = s3StorageService;
+        this.redisTemplate = redisTemplate;
+        this.debounce = debounce;
+        this.manifestTtl = manifestTtl;
+        this.linkTtl = linkTtl;
+
+        if (enabled && !s3StorageService.isCloudFrontEnabled()) {
+            log.warn("Guest manifests require CloudFront — serving guest album details dynamically");
+        }
+        if (manifestTtl.compareTo(S3StorageService.VIEW_URL_TTL) >= 0) {
+            throw new IllegalStateException("guest-manifest.ttl must be shorter than the photo view URL lifetime");
+        }
+        this.enabled = enabled && s3StorageService.isCloudFrontEnabled();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "guest-manifest");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public List<PhotoResponse> buildPublicPhotos(UUID albumId) {
+        return buildPublicPhotos(albumId, PhotoFields.ALL);
+    }
+
+    public List<PhotoResponse> buildPublicPhotos(UUID albumId, PhotoFields fields) {
+        List<PhotoBulkRepository.ListedPhoto> allPhotos = photoBulkRepository.listPhotos(albumId);
+        List<PhotoResponse> publicPhotos = new ArrayList<>();
+
+        for (PhotoBulkRepository.ListedPhoto photo : allPhotos) {
+            if (photo.accessMode() == AccessMode.PUBLIC) {
+                publicPhotos.add(fields.toResponse(
+                        photo.id().toString(),
+                        () -> s3StorageService.generateViewUrl(photo.storageUrl()),
+                        true,
+                        photo.processed(),
+                        0,
+                        NO_FACE_BOXES
+                ));
+            }
+        }
+        return publicPhotos;
+    }
+
+    public String currentManifestUrl(UUID albumId) {
+        if (!enabled) return null;
+        try {
+            String manifestKey = redisTemplate.opsForValue().get(POINTER_PREFIX + albumId);
+            return manifestKey == null ? null : s3StorageService.generateViewUrl(manifestKey, linkTtl);
+        } catch (Exception e) {
+            log.warn("Manifest lookup failed for album {} (serving dynamically): {}", albumId, e.getMessage());
+            return null;
+        }
+    }
+
+    public void requestPublish(UUID albumId) {
+        if (!enabled) return;
+        String staleKey = deletePointer(albumId);
+        if (staleKey != null) deleteLater(staleKey);
+        pending.compute(albumId, (id, existing) -> {
+            if (existing != null) existing.cancel(false);
+            return scheduler.schedule(() -> publish(id), debounce.toMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    public void ensurePublished(UUID albumId) {
+        if (!enabled) return;
+        pending.computeIfAbsent(albumId,
+                id -> scheduler.schedule(() -> publish(id), debounce.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    public void removeAlbum(UUID albumId) {
+        if (!enabled) return;
+        ScheduledFuture<?> scheduled = pending.remove(albumId);
+        if (scheduled != null) scheduled.cancel(false);
+
+        String manifestKey = deletePointer(albumId);
+        if (manifestKey != null) s3StorageService.deleteObject(manifestKey);
+    }
+
+    private void publish(UUID albumId) {
+        pending.remove(albumId);
+        ReplicaRoutingContext.pinPrimary();
+        try {
+            Optional<AlbumSummary> album = albumAccessCache.find(albumId);
+            if (album.isEmpty()) return;
+
+            long version = System.currentTimeMillis();
+            String manifestKey = "albums/" + albumId + "/manifests/" + version + ".json";
+
+            Map<String, Object> manifest = new LinkedHashMap<>();
+            manifest.put("version", version);
+            manifest.put("title", album.get().title());
+            manifest.put("expiresAt", Instant.ofEpochMilli(version).plus(manifestTtl).toString());
+            manifest.put("publicPhotos", buildPublicPhotos(albumId));
+
+            s3StorageService.putGuestManifest(manifestKey, MAPPER.writeValueAsBytes(manifest),
+                    "public, max-age=" + manifestTtl.toSeconds() + ", immutable");
+
+            String pointerKey = POINTER_PREFIX + albumId;
+            String previousKey = redisTemplate.opsForValue().get(pointerKey);
+            redisTemplate.opsForValue().set(pointerKey, manifestKey, manifestTtl);
+
+            if (previousKey != null && !previousKey.equals(manifestKey)) deleteLater(previousKey);
+            log.info("Published guest manifest {} for album {}", version, albumId);
+        } catch (Exception e) {
+            log.warn("Could not publish guest manifest for album {}: {}", albumId, e.getMessage());
+        } finally {
+            ReplicaRoutingContext.clear();
+        }
+    }
+
+    private void deleteLater(String manifestKey) {
+        scheduler.schedule(() -> s3StorageService.deleteObject(manifestKey),
+                linkTtl.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private String deletePointer(UUID albumId) {
+        try {
+            return redisTemplate.opsForValue().getAndDelete(POINTER_PREFIX + albumId);
+        } catch (Exception e) {
+            log.warn("Could not invalidate guest manifest for album {}: {}", albumId, e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
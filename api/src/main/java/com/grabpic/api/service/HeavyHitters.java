@@ -0,0 +1,45 @@
+package com.grabpic.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tracks which albums and clients account for most of the recent traffic on this instance, so
+ * a hot album during an event shows up without scanning logs. Memory is fixed per tracker and
+ * counts halve every decay interval.
+ */
+@Service
+public class HeavyHitters {
+
+    private final boolean enabled;
+    private final TopKSketch albums;
+    private final TopKSketch clients;
+
+    public HeavyHitters(@Value("${heavy-hitters.enabled:true}") boolean enabled,
+                        @Value("${heavy-hitters.top-k:20}") int topK,
+                        @Value("${heavy-hitters.sketch-width:2048}") int sketchWidth,
+                        @Value("${heavy-hitters.decay-interval:1m}") Duration decayInterval) {
+        this.enabled = enabled;
+        long now = System.nanoTime();
+        this.albums = new TopKSketch(sketchWidth, topK, decayInterval.toNanos(), now);
+        this.clients = new TopKSketch(sketchWidth, topK, decayInterval.toNanos(), now);
+    }
+
+    public void record(String albumId, String clientKey) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        if (albumId != null) albums.add(albumId, now);
+        clients.add(clientKey, now);
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(albums.top(), clients.top());
+    }
+
+    public record HeavyHitter(String key, long count) {}
+
+    public record Snapshot(List<HeavyHitter> albums, List<HeavyHitter> clients) {}
+}
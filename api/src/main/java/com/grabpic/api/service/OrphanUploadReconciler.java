@@ -0,0 +1,123 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.repository.PhotoBulkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deletes uploaded objects that never became photos, e.g. when the client abandoned the upload
+ * before saving. The bucket is listed page by page and each page is anti-joined against
+ * {@code photos.storage_url}, so memory and query size stay bounded however large the bucket is.
+ */
+@Service
+public class OrphanUploadReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanUploadReconciler.class);
+
+    private static final String LOCK_KEY = "orphan-uploads:lock";
+
+    private final S3StorageService s3StorageService;
+    private final PhotoBulkRepository photoBulkRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    private final boolean enabled;
+    private final Duration interval;
+    private final Duration gracePeriod;
+    private final Duration lockTtl;
+    private final Counter deletedCounter;
+
+    private final ScheduledExecutorService scheduler;
+
+    public OrphanUploadReconciler(S3StorageService s3StorageService,
+                                  PhotoBulkRepository photoBulkRepository,
+                                  StringRedisTemplate redisTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${orphan-uploads.enabled:true}") boolean enabled,
+                                  @Value("${orphan-uploads.interval:6h}") Duration interval,
+                                  @Value("${orphan-uploads.grace-period:24h}") Duration gracePeriod,
+                                  @Value("${orphan-uploads.lock-ttl:1h}") Duration lockTtl) {
+        this.s3StorageService = s3StorageService;
+        this.photoBulkRepository = photoBulkRepository;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.gracePeriod = gracePeriod;
+        this.lockTtl = lockTtl;
+        this.deletedCounter = Counter.builder("s3.orphan-uploads.deleted")
+                .description("Uploaded objects deleted because no photo references them")
+                .register(meterRegistry);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "orphan-uploads");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        scheduler.scheduleWithFixedDelay(this::runOnce, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void runOnce() {
+        try {
+            // Only one instance reconciles per lock period; the lock is left to expire.
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, UUID.randomUUID().toString(), lockTtl);
+            if (!Boolean.TRUE.equals(acquired)) return;
+
+            long started = System.nanoTime();
+            int deleted = reconcile(Instant.now());
+            log.info("Orphaned upload reconciliation deleted {} objects in {}ms", deleted,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (Exception e) {
+            log.warn("Orphaned upload reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes upload objects older than the grace period that no photo references. The grace
+     * period covers uploads whose registration is still in flight.
+     */
+    int reconcile(Instant now) {
+        Instant cutoff = now.minus(gracePeriod);
+        AtomicInteger deleted = new AtomicInteger();
+        s3StorageService.forEachObjectPage(S3StorageService.UPLOAD_PREFIX, page -> {
+            List<String> candidates = page.stream()
+                    .filter(object -> object.lastModified().isBefore(cutoff))
+                    .map(S3StorageService.StoredObject::key)
+                    .filter(key -> S3StorageService.UPLOAD_KEY_PATTERN.matcher(key).matches())
+                    .toList();
+            if (candidates.isEmpty()) return;
+
+            List<String> orphans = photoBulkRepository.unreferenced(candidates);
+            if (orphans.isEmpty()) return;
+
+            s3StorageService.deleteObjects(orphans);
+            deletedCounter.increment(orphans.size());
+            deleted.addAndGet(orphans.size());
+        });
+        return deleted.get();
+    }
+}
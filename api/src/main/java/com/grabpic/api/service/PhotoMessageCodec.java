@@ -0,0 +1,76 @@
+package com.grabpic.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class PhotoMessageCodec {
+
+    public static final int CURRENT_VERSION = 2;
+
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+    private static final int ENVELOPE_OVERHEAD_BYTES =
+            MAPPER.writeValueAsBytes(new PhotoBatchEnvelope(CURRENT_VERSION, List.of())).length;
+
+    private final int maxPhotosPerMessage;
+    private final int maxMessageBytes;
+
+    public PhotoMessageCodec(@Value("${aws.sqs.message.max-photos:10}") int maxPhotosPerMessage,
+                             @Value("${aws.sqs.message.max-bytes:262144}") int maxMessageBytes) {
+        this.maxPhotosPerMessage = maxPhotosPerMessage;
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    public List<String> encode(List<SqsService.PhotoMessage> photos) {
+        List<String> bodies = new ArrayList<>();
+        List<SqsService.PhotoMessage> current = new ArrayList<>();
+        int currentBytes = ENVELOPE_OVERHEAD_BYTES;
+
+        for (SqsService.PhotoMessage photo : photos) {
+            int photoBytes = MAPPER.writeValueAsBytes(photo).length;
+            int separatorBytes = current.isEmpty() ? 0 : 1;
+
+            if (!current.isEmpty()
+                    && (current.size() >= maxPhotosPerMessage
+                        || currentBytes + separatorBytes + photoBytes > maxMessageBytes)) {
+                bodies.add(write(current));
+                current = new ArrayList<>();
+                currentBytes = ENVELOPE_OVERHEAD_BYTES;
+                separatorBytes = 0;
+            }
+
+            current.add(photo);
+            currentBytes += separatorBytes + photoBytes;
+        }
+
+        if (!current.isEmpty()) bodies.add(write(current));
+        return bodies;
+    }
+
+    public List<SqsService.PhotoMessage> decode(String body) {
+        JsonNode root = MAPPER.readTree(body);
+
+        if (!root.has("version")) {
+            return List.of(MAPPER.treeToValue(root, SqsService.PhotoMessage.class));
+        }
+
+        int version = root.get("version").asInt();
+        if (version != CURRENT_VERSION) {
+            throw new IllegalArgumentException("Unsupported photo message version: " + version);
+        }
+        return MAPPER.treeToValue(root, PhotoBatchEnvelope.class).photos();
+    }
+
+    private String write(List<SqsService.PhotoMessage> photos) {
+        byte[] bytes = MAPPER.writeValueAsBytes(new PhotoBatchEnvelope(CURRENT_VERSION, List.copyOf(photos)));
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public record PhotoBatchEnvelope(int version, List<SqsService.PhotoMessage> photos) {}
+}
@@ -0,0 +1,52 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.repository.PhotoBulkRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class PhotoRegistrationService {
+
+    private final PhotoBulkRepository photoBulkRepository;
+    private final SqsService sqsService;
+    private final SingleFlightCache singleFlightCache;
+    private final GuestManifestPublisher guestManifestPublisher;
+    private final S3CleanupQueue s3CleanupQueue;
+
+    public PhotoRegistrationService(PhotoBulkRepository photoBulkRepository,
+                                    SqsService sqsService,
+                                    SingleFlightCache singleFlightCache,
+                                    GuestManifestPublisher guestManifestPublisher,
+                                    S3CleanupQueue s3CleanupQueue) {
+        this.photoBulkRepository = photoBulkRepository;
+        this.sqsService = sqsService;
+        this.singleFlightCache = singleFlightCache;
+        this.guestManifestPublisher = guestManifestPublisher;
+        this.s3CleanupQueue = s3CleanupQueue;
+    }
+
+    /**
+     * Registers uploaded objects as photos and queues them for face processing. Keys that are
+     * already registered are skipped, so the client save and the S3 event path can both run.
+     * Uploads identical to an already processed photo of the host reuse its object and faces;
+     * the redundant upload is deleted instead of being processed again.
+     */
+    public int register(UUID albumId, List<PhotoBulkRepository.NewPhoto> photos) {
+        if (photos.isEmpty()) return 0;
+
+        PhotoBulkRepository.InsertResult result = photoBulkRepository.insertIfAbsent(albumId, photos);
+        s3CleanupQueue.deleteLater(result.supersededUploads());
+        List<PhotoBulkRepository.ChangedPhoto> inserted = result.inserted();
+        if (inserted.isEmpty()) return 0;
+
+        sqsService.sendPhotosForProcessingBatch(inserted.stream()
+                .filter(photo -> !photo.processed())
+                .map(photo -> new SqsService.PhotoMessage(photo.id().toString(), photo.storageUrl()))
+                .toList());
+        singleFlightCache.evictAlbum(albumId);
+        guestManifestPublisher.requestPublish(albumId);
+        return inserted.size();
+    }
+}
@@ -0,0 +1,65 @@
+package com.grabpic.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote within the replica lag window, so their reads can go to the
+ * primary. Writes are published to every instance and kept in memory, so checking a read
+ * costs no Redis round trip. If Redis is down, other instances miss the write and may serve
+ * that user replica data up to one lag window old.
+ */
+@Service
+public class ReplicaLagGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagGuard.class);
+
+    private static final String WRITES_CHANNEL = "replica-writes";
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final long lagWindowMillis;
+    private final ConcurrentHashMap<String, Long> recentWriters = new ConcurrentHashMap<>();
+
+    public ReplicaLagGuard(StringRedisTemplate redisTemplate,
+                           RedisMessageListenerContainer listenerContainer,
+                           @Value("${spring.datasource.replica.lag-window:5s}") Duration lagWindow) {
+        this.redisTemplate = redisTemplate;
+        this.lagWindowMillis = lagWindow.toMillis();
+
+        listenerContainer.addMessageListener(
+                (message, pattern) -> remember(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(WRITES_CHANNEL));
+    }
+
+    public void recordWrite(String userId) {
+        remember(userId);
+        try {
+            redisTemplate.convertAndSend(WRITES_CHANNEL, userId);
+        } catch (Exception e) {
+            log.warn("Could not publish recent write for replica routing: {}", e.getMessage());
+        }
+    }
+
+    public boolean wroteRecently(String userId) {
+        Long until = recentWriters.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private void remember(String userId) {
+        long now = System.currentTimeMillis();
+        if (recentWriters.size() >= PRUNE_THRESHOLD) {
+            recentWriters.values().removeIf(until -> until <= now);
+        }
+        recentWriters.put(userId, now + lagWindowMillis);
+    }
+}
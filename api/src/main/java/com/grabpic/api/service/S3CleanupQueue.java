@@ -0,0 +1,76 @@
+package com.grabpic.api.service;
+
+import jakarta.annotation.PreDestroy;
+import com.grabpic.api.repository.PhotoBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class S3CleanupQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(S3CleanupQueue.class);
+
+    private final S3StorageService s3StorageService;
+    private final PhotoBulkRepository photoBulkRepository;
+    private final int queueCapacity;
+    private final Duration recheckDelay;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor executor;
+
+    public S3CleanupQueue(S3StorageService s3StorageService,
+                          PhotoBulkRepository photoBulkRepository,
+                          @Value("${s3-cleanup.queue-capacity:1000}") int queueCapacity,
+                          @Value("${s3-cleanup.recheck-delay:1m}") Duration recheckDelay) {
+        this.s3StorageService = s3StorageService;
+        this.photoBulkRepository = photoBulkRepository;
+        this.queueCapacity = queueCapacity;
+        this.recheckDelay = recheckDelay;
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "s3-cleanup");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Deletes the objects in the background. Deduplicated photos share objects, so keys that
+     * some photo still references are skipped. The check runs after the re-check delay, so a
+     * registration that reused one of the objects while it was being deleted has committed by
+     * then. Batches beyond the queue capacity are left to the orphan reconciler.
+     */
+    public void deleteLater(List<String> s3Keys) {
+        if (s3Keys == null || s3Keys.isEmpty()) return;
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            log.warn("S3 cleanup queue is full; leaving {} objects to the orphan reconciler", s3Keys.size());
+            return;
+        }
+
+        List<String> keys = List.copyOf(s3Keys);
+        executor.schedule(() -> {
+            queued.decrementAndGet();
+            try {
+                List<String> unreferenced = photoBulkRepository.unreferenced(keys);
+                if (!unreferenced.isEmpty()) s3StorageService.deleteObjects(unreferenced);
+            } catch (Exception e) {
+                log.warn("S3 cleanup of {} objects failed; leaving them to the orphan reconciler: {}",
+                        keys.size(), e.getMessage());
+            }
+        }, recheckDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int pending = executor.shutdownNow().size();
+        if (pending > 0) log.info("{} S3 cleanup batches left to the orphan reconciler", pending);
+    }
+}
@@ -1,14 +1,26 @@
 package com.grabpic.api.service;
 
+import com.grabpic.api.config.DependencyGuard;
+import com.grabpic.api.config.DependencyGuards;
+import com.grabpic.api.config.DependencyUnavailableException;
+import com.grabpic.api.config.LazyClient;
+import com.grabpic.api.config.RequestProfiler;
+import com.grabpic.api.model.AccessMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 import software.amazon.awssdk.services.cloudfront.CloudFrontUtilities;
 import software.amazon.awssdk.services.cloudfront.model.CannedSignerRequest;
@@ -20,22 +32,51 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 @Service
 public class S3StorageService {
 
     private static final Logger log = LoggerFactory.getLogger(S3StorageService.class);
 
+    public static final Duration VIEW_URL_TTL = Duration.ofHours(7);
+    private static final int DELETE_OBJECTS_LIMIT = 1000;
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    public static final String UPLOAD_PREFIX = "albums/";
+    public static final Pattern UPLOAD_KEY_PATTERN =
+            Pattern.compile("^albums/([0-9a-fA-F\\-]{36})/[0-9a-fA-F\\-]{36}\\.jpg$");
+
+    public static final String METADATA_ALBUM_ID = "album-id";
+    public static final String METADATA_ACCESS_MODE = "access-mode";
+
+    private static final String OBJECT_TYPE_TAG = "grabpic-object";
+    private static final String GUEST_MANIFEST_TYPE = "guest-manifest";
+    private static final String ARCHIVED_PHOTO_TYPE = "archived-photo";
+    // Bump when the lifecycle or CORS rules below change.
+    private static final int BUCKET_CONFIGURATION_REVISION = 3;
+
     private final String bucketName;
     private final String[] allowedOrigins;
-    private final S3Presigner presigner;
-    private final S3Client s3Client;
+    private final LazyClient<S3Presigner> presigner;
+    private final LazyClient<S3Client> s3Client;
+    private final DependencyGuard s3Guard;
+
+    private final Timer cloudFrontSignTimer;
+    private final Timer s3PresignTimer;
+    private final Timer headObjectTimer;
 
     private final String cloudfrontDomain;
     private final String cloudfrontKeyPairId;
-    private final PrivateKey cloudfrontPrivateKey;
+    private final LazyClient<PrivateKey> cloudfrontPrivateKey;
     private final CloudFrontUtilities cloudFrontUtilities;
 
     public S3StorageService(@Value("${aws.s3.region}") String region,
@@ -43,7 +84,14 @@ public class S3StorageService {
                             @Value("${cors.allowed-origins}") String allowedOrigins,
                             @Value("${aws.cloudfront.domain:}") String cloudfrontDomain,
                             @Value("${aws.cloudfront.key-pair-id:}") String cloudfrontKeyPairId,
-                            @Value("${aws.cloudfront.private-key-string:}") String cloudfrontPrivateKeyString) {
+                            @Value("${aws.cloudfront.private-key-string:}") String cloudfrontPrivateKeyString,
+                            @Value("${aws.s3.http.max-connections:50}") int maxConnections,
+                            @Value("${aws.s3.http.connect-timeout:2s}") Duration connectTimeout,
+                            @Value("${aws.s3.http.read-timeout:5s}") Duration readTimeout,
+                            @Value("${aws.s3.http.acquire-timeout:1s}") Duration acquireTimeout,
+                            @Value("${aws.s3.api-call-timeout:10s}") Duration apiCallTimeout,
+                            DependencyGuards dependencyGuards,
+                            MeterRegistry meterRegistry) {
 
         this.bucketName = bucketName;
         this.allowedOrigins = allowedOrigins.split(",");
@@ -51,7 +99,7 @@ public class S3StorageService {
         if (!cloudfrontDomain.isBlank() && !cloudfrontKeyPairId.isBlank() && !cloudfrontPrivateKeyString.isBlank()) {
             this.cloudfrontDomain = cloudfrontDomain;
             this.cloudfrontKeyPairId = cloudfrontKeyPairId;
-            this.cloudfrontPrivateKey = parsePemPrivateKey(cloudfrontPrivateKeyString);
+            this.cloudfrontPrivateKey = new LazyClient<>(() -> parsePemPrivateKey(cloudfrontPrivateKeyString));
             this.cloudFrontUtilities = CloudFrontUtilities.create();
             log.info("CloudFront signing enabled: {}", cloudfrontDomain);
         } else {
@@ -62,13 +110,41 @@ public class S3StorageService {
             log.info("CloudFront not configured — falling back to direct S3 pre-signed URLs");
         }
 
-        this.presigner = S3Presigner.builder()
+        this.presigner = new LazyClient<>(() -> S3Presigner.builder()
                 .region(Region.of(region))
-                .build();
+                .build());
 
-        this.s3Client = S3Client.builder()
+        this.s3Client = new LazyClient<>(() -> S3Client.builder()
                 .region(Region.of(region))
-                .build();
+                .httpClientBuilder(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .connectionTimeout(connectTimeout)
+                        .socketTimeout(readTimeout)
+                        .connectionAcquisitionTimeout(acquireTimeout))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .apiCallTimeout(apiCallTimeout)
+                        .apiCallAttemptTimeout(readTimeout)
+                        .build())
+                .build());
+
+        this.s3Guard = dependencyGuards.forDependency("s3");
+
+        this.cloudFrontSignTimer = viewUrlTimer("cloudfront", meterRegistry);
+        this.s3PresignTimer = viewUrlTimer("s3", meterRegistry);
+        this.headObjectTimer = Timer.builder("s3.head-object")
+                .description("HeadObject round-trip used to validate uploads")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer viewUrlTimer(String signer, MeterRegistry meterRegistry) {
+        return Timer.builder("s3.view-url.sign")
+                .description("Time to sign a photo view URL")
+                .tag("signer", signer)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
     }
 
     private static PrivateKey parsePemPrivateKey(String pem) {
@@ -87,8 +163,32 @@ public class S3StorageService {
         }
     }
 
-    @PostConstruct
-    public void ensureLifecycleRules() {
+    /**
+     * Builds the SDK clients and parses the CloudFront key ahead of the first request that needs
+     * them. Called in the background once the application is ready.
+     */
+    public void warmUp() {
+        s3Client.get();
+        presigner.get();
+        if (cloudfrontPrivateKey != null) cloudfrontPrivateKey.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        s3Client.close();
+        presigner.close();
+    }
+
+    /**
+     * Fingerprint of the bucket configuration applied by {@link #ensureLifecycleRules()}, used
+     * to skip reapplying a configuration that is already in place.
+     */
+    public String bucketConfigurationFingerprint() {
+        return bucketName + ":" + BUCKET_CONFIGURATION_REVISION + ":" + String.join(",", allowedOrigins);
+    }
+
+    public boolean ensureLifecycleRules() {
+        boolean applied = true;
         try {
             AbortIncompleteMultipartUpload abortRule = AbortIncompleteMultipartUpload.builder()
                     .daysAfterInitiation(1)
@@ -101,20 +201,43 @@ public class S3StorageService {
                     .abortIncompleteMultipartUpload(abortRule)
                     .build();
 
-            s3Client.putBucketLifecycleConfiguration(
+            LifecycleRule manifestRule = LifecycleRule.builder()
+                    .id("expire-guest-manifests")
+                    .status(ExpirationStatus.ENABLED)
+                    .filter(LifecycleRuleFilter.builder()
+                            .tag(Tag.builder().key(OBJECT_TYPE_TAG).value(GUEST_MANIFEST_TYPE).build())
+                            .build())
+                    .expiration(LifecycleExpiration.builder().days(1).build())
+                    .build();
+
+            // Glacier Instant Retrieval keeps archived photos readable through the usual URLs.
+            LifecycleRule archiveRule = LifecycleRule.builder()
+                    .id("transition-archived-photos")
+                    .status(ExpirationStatus.ENABLED)
+                    .filter(LifecycleRuleFilter.builder()
+                            .tag(Tag.builder().key(OBJECT_TYPE_TAG).value(ARCHIVED_PHOTO_TYPE).build())
+                            .build())
+                    .transitions(Transition.builder()
+                            .days(1)
+                            .storageClass(TransitionStorageClass.GLACIER_IR)
+                            .build())
+                    .build();
+
+            s3Client.get().putBucketLifecycleConfiguration(
                     PutBucketLifecycleConfigurationRequest.builder()
                             .bucket(bucketName)
                             .lifecycleConfiguration(
                                     BucketLifecycleConfiguration.builder()
-                                            .rules(rule)
+                                            .rules(rule, manifestRule, archiveRule)
                                             .build()
                             )
                             .build()
             );
 
-            log.info("S3 lifecycle rule applied: abort incomplete multipart uploads after 1 day.");
+            log.info("S3 lifecycle rules applied: abort incomplete multipart uploads, expire guest manifests after 1 day, transition archived photos to Glacier IR.");
         } catch (Exception e) {
             log.warn("Could not apply S3 lifecycle rule (non-fatal): {}", e.getMessage());
+            applied = false;
         }
 
         try {
@@ -125,7 +248,7 @@ public class S3StorageService {
                     .maxAgeSeconds(3600)
                     .build();
 
-            s3Client.putBucketCors(PutBucketCorsRequest.builder()
+            s3Client.get().putBucketCors(PutBucketCorsRequest.builder()
                     .bucket(bucketName)
                     .corsConfiguration(CORSConfiguration.builder()
                             .corsRules(corsRule)
@@ -135,102 +258,261 @@ public class S3StorageService {
             log.info("S3 CORS applied: allowing GET from {}", String.join(", ", allowedOrigins));
         } catch (Exception e) {
             log.warn("Could not apply S3 CORS config (non-fatal): {}", e.getMessage());
+            applied = false;
         }
+        return applied;
     }
 
     public List<String> generateBatchUploadUrls(UUID albumId, List<Long> fileSizes) {
         List<String> urls = new ArrayList<>();
 
         for (Long fileSize : fileSizes) {
-            String fileName = "albums/" + albumId.toString() + "/" + UUID.randomUUID() + ".jpg";
-
-            PutObjectRequest objectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(fileName)
-                    .contentType("image/jpeg")
-                    .contentLength(fileSize)
-                    .build();
+            urls.add(presignUpload(albumId, fileSize, Map.of(), null).url().toString());
+        }
 
-            PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
-                    .signatureDuration(Duration.ofMinutes(15))
-                    .putObjectRequest(objectRequest)
-                    .build();
+        return urls;
+    }
 
-            urls.add(presigner.presignPutObject(presignRequest).url().toString());
+    /**
+     * Presigns uploads that carry their album and access mode as object metadata, so the
+     * upload can be registered from the S3 event alone. Each upload is bound to the SHA-256 the
+     * client declared, which S3 verifies and stores. The returned headers are signed and must be
+     * sent with the PUT.
+     */
+    public List<PresignedUpload> generateRegisteredUploadUrls(UUID albumId, List<Long> fileSizes,
+                                                              List<AccessMode> accessModes,
+                                                              List<String> checksumsSha256) {
+        List<PresignedUpload> uploads = new ArrayList<>();
+
+        for (int i = 0; i < fileSizes.size(); i++) {
+            PresignedPutObjectRequest presigned = presignUpload(albumId, fileSizes.get(i), Map.of(
+                    METADATA_ALBUM_ID, albumId.toString(),
+                    METADATA_ACCESS_MODE, accessModes.get(i).name()), checksumsSha256.get(i));
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            presigned.signedHeaders().forEach((name, values) -> {
+                if (name.startsWith("x-amz-meta-") || name.startsWith("x-amz-checksum-")
+                        || name.equalsIgnoreCase("content-type")) {
+                    headers.put(name, String.join(",", values));
+                }
+            });
+            uploads.add(new PresignedUpload(presigned.url().toString(), headers));
         }
 
-        return urls;
+        return uploads;
+    }
+
+    private PresignedPutObjectRequest presignUpload(UUID albumId, long fileSize, Map<String, String> metadata,
+                                                    String checksumSha256) {
+        String fileName = "albums/" + albumId.toString() + "/" + UUID.randomUUID() + ".jpg";
+
+        PutObjectRequest objectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(fileName)
+                .contentType("image/jpeg")
+                .contentLength(fileSize)
+                .metadata(metadata)
+                .checksumSHA256(checksumSha256)
+                .build();
+
+        PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofMinutes(15))
+                .putObjectRequest(objectRequest)
+                .build();
+
+        return presigner.get().presignPutObject(presignRequest);
+    }
+
+    public boolean isCloudFrontEnabled() {
+        return cloudFrontUtilities != null;
     }
 
     public String generateViewUrl(String s3Key) {
+        return generateViewUrl(s3Key, VIEW_URL_TTL);
+    }
+
+    public String generateViewUrl(String s3Key, Duration ttl) {
+        long start = System.nanoTime();
         if (cloudFrontUtilities != null) {
             try {
                 String resourceUrl = "https://" + cloudfrontDomain + "/" + s3Key;
-                Instant expiration = Instant.now().plus(Duration.ofHours(7));
+                Instant expiration = Instant.now().plus(ttl);
 
                 CannedSignerRequest signerRequest = CannedSignerRequest.builder()
                         .resourceUrl(resourceUrl)
                         .keyPairId(cloudfrontKeyPairId)
-                        .privateKey(cloudfrontPrivateKey)
+                        .privateKey(cloudfrontPrivateKey.get())
                         .expirationDate(expiration)
                         .build();
 
-                return cloudFrontUtilities.getSignedUrlWithCannedPolicy(signerRequest).url();
+                String signedUrl = cloudFrontUtilities.getSignedUrlWithCannedPolicy(signerRequest).url();
+                cloudFrontSignTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                RequestProfiler.record(RequestProfiler.Phase.SIGNING, start);
+                return signedUrl;
             } catch (Exception e) {
                 log.error("CloudFront URL signing failed for {} — falling back to S3: {}", s3Key, e.getMessage());
             }
         }
 
-        return presigner.presignGetObject(
+        String presignedUrl = presigner.get().presignGetObject(
                 software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest.builder()
-                        .signatureDuration(Duration.ofHours(7))
+                        .signatureDuration(ttl)
                         .getObjectRequest(b -> b.bucket(bucketName).key(s3Key))
                         .build()
         ).url().toString();
+        s3PresignTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        RequestProfiler.record(RequestProfiler.Phase.SIGNING, start);
+        return presignedUrl;
     }
 
-    public long getObjectSize(String s3Key) {
+    public void putGuestManifest(String s3Key, byte[] body, String cacheControl) {
+        long start = System.nanoTime();
+        s3Guard.run(() -> s3Client.get().putObject(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(s3Key)
+                        .contentType("application/json")
+                        .cacheControl(cacheControl)
+                        .tagging(OBJECT_TYPE_TAG + "=" + GUEST_MANIFEST_TYPE)
+                        .build(),
+                RequestBody.fromBytes(body)));
+        RequestProfiler.record(RequestProfiler.Phase.S3, start);
+    }
+
+    public Optional<UploadedObject> describeUpload(String s3Key) {
+        long start = System.nanoTime();
         try {
-            HeadObjectResponse response = s3Client.headObject(HeadObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(s3Key)
-                    .build());
-            return response.contentLength();
-        } catch (NoSuchKeyException e) {
-            return -1;
+            return s3Guard.call(() -> headObjectTimer.record((Supplier<Optional<UploadedObject>>) () -> {
+                try {
+                    HeadObjectResponse head = s3Client.get().headObject(HeadObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(s3Key)
+                            .checksumMode(ChecksumMode.ENABLED)
+                            .build());
+                    return Optional.of(new UploadedObject(
+                            head.contentLength(), head.metadata(), head.checksumSHA256()));
+                } catch (NoSuchKeyException e) {
+                    return Optional.empty();
+                }
+            }));
+        } catch (DependencyUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("HeadObject failed for {}: {}", s3Key, e.getMessage());
-            return -1;
+            throw new DependencyUnavailableException("s3", "HeadObject failed", e);
+        } finally {
+            RequestProfiler.record(RequestProfiler.Phase.S3, start);
         }
     }
 
     public void deleteObject(String s3Key) {
+        long start = System.nanoTime();
         try {
-            s3Client.deleteObject(DeleteObjectRequest.builder()
+            s3Guard.run(() -> s3Client.get().deleteObject(DeleteObjectRequest.builder()
                     .bucket(bucketName)
                     .key(s3Key)
-                    .build());
+                    .build()));
             log.info("Deleted S3 object: {}", s3Key);
         } catch (Exception e) {
             log.error("Failed to delete S3 object {}: {}", s3Key, e.getMessage());
+        } finally {
+            RequestProfiler.record(RequestProfiler.Phase.S3, start);
         }
     }
 
     public void deleteObjects(List<String> s3Keys) {
         if (s3Keys == null || s3Keys.isEmpty()) return;
 
+        long start = System.nanoTime();
         try {
-            List<ObjectIdentifier> identifiers = s3Keys.stream()
-                    .map(key -> ObjectIdentifier.builder().key(key).build())
-                    .toList();
-
-            s3Client.deleteObjects(DeleteObjectsRequest.builder()
-                    .bucket(bucketName)
-                    .delete(Delete.builder().objects(identifiers).quiet(true).build())
-                    .build());
+            for (int from = 0; from < s3Keys.size(); from += DELETE_OBJECTS_LIMIT) {
+                List<ObjectIdentifier> identifiers = s3Keys
+                        .subList(from, Math.min(from + DELETE_OBJECTS_LIMIT, s3Keys.size())).stream()
+                        .map(key -> ObjectIdentifier.builder().key(key).build())
+                        .toList();
+
+                DeleteObjectsResponse response = s3Guard.call(() -> s3Client.get().deleteObjects(DeleteObjectsRequest.builder()
+                        .bucket(bucketName)
+                        .delete(Delete.builder().objects(identifiers).quiet(true).build())
+                        .build()));
+                if (response.hasErrors() && !response.errors().isEmpty()) {
+                    S3Error first = response.errors().get(0);
+                    log.error("Failed to delete {} of {} S3 objects (first: {} {})", response.errors().size(),
+                            identifiers.size(), first.key(), first.code());
+                }
+            }
             log.info("Batch-deleted {} S3 objects.", s3Keys.size());
         } catch (Exception e) {
             log.error("Failed to batch-delete S3 objects: {}", e.getMessage());
+        } finally {
+            RequestProfiler.record(RequestProfiler.Phase.S3, start);
+        }
+    }
+
+    /**
+     * Tags a photo object so the lifecycle rule moves it to Glacier Instant Retrieval.
+     */
+    public void markArchived(String s3Key) {
+        s3Guard.run(() -> s3Client.get().putObjectTagging(PutObjectTaggingRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .tagging(Tagging.builder()
+                        .tagSet(Tag.builder().key(OBJECT_TYPE_TAG).value(ARCHIVED_PHOTO_TYPE).build())
+                        .build())
+                .build()));
+    }
+
+    /**
+     * Removes the archive tag and, if the object was already transitioned, copies it onto itself
+     * in S3 Standard.
+     */
+    public void restoreFromArchive(String s3Key) {
+        HeadObjectResponse head = s3Guard.call(() -> s3Client.get().headObject(HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .build()));
+        if (head.storageClass() == null || head.storageClass() == StorageClass.STANDARD) {
+            s3Guard.run(() -> s3Client.get().deleteObjectTagging(DeleteObjectTaggingRequest.builder()
+                    .bucket(bucketName)
+                    .key(s3Key)
+                    .build()));
+            return;
         }
+        s3Guard.run(() -> s3Client.get().copyObject(CopyObjectRequest.builder()
+                .sourceBucket(bucketName)
+                .sourceKey(s3Key)
+                .destinationBucket(bucketName)
+                .destinationKey(s3Key)
+                .storageClass(StorageClass.STANDARD)
+                .metadataDirective(MetadataDirective.COPY)
+                .taggingDirective(TaggingDirective.REPLACE)
+                .build()));
+    }
+
+    /**
+     * Lists the objects under a prefix one ListObjectsV2 page at a time, so callers only ever
+     * hold a single page of keys in memory. Only the list calls go through the S3 guard, not
+     * the work the consumer does with each page.
+     */
+    public void forEachObjectPage(String prefix, Consumer<List<StoredObject>> pageConsumer) {
+        String continuationToken = null;
+        do {
+            ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .prefix(prefix)
+                    .maxKeys(LIST_PAGE_SIZE)
+                    .continuationToken(continuationToken)
+                    .build();
+            ListObjectsV2Response page = s3Guard.call(() -> s3Client.get().listObjectsV2(request));
+            pageConsumer.accept(page.contents().stream()
+                    .map(object -> new StoredObject(object.key(), object.lastModified()))
+                    .toList());
+            continuationToken = Boolean.TRUE.equals(page.isTruncated()) ? page.nextContinuationToken() : null;
+        } while (continuationToken != null);
     }
+
+    public record PresignedUpload(String url, Map<String, String> headers) {}
+
+    public record UploadedObject(long size, Map<String, String> metadata, String checksumSha256) {}
+
+    public record StoredObject(String key, Instant lastModified) {}
 }
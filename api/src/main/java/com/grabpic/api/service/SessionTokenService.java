@@ -0,0 +1,99 @@
+package com.grabpic.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+@Service
+public class SessionTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTokenService.class);
+
+    public static final String HEADER = "X-Session-Token";
+
+    private static final String VERSION = "v1";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ThreadLocal<Mac> macs;
+
+    public SessionTokenService(@Value("${session-token.secret:}") String secret,
+                               @Value("${session-token.ttl:15m}") Duration ttl,
+                               @Value("${session-token.require-secret:false}") boolean requireSecret) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (requireSecret) {
+                throw new IllegalStateException("session-token.secret must be set when session-token.require-secret is true");
+            }
+            keyBytes = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("session-token.secret is not set — using a random key, so upload session tokens minted here "
+                    + "are rejected by every other instance and by this one after a restart. "
+                    + "Set SESSION_TOKEN_SECRET when running more than one instance.");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("session-token.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+        }
+
+        this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.ttl = ttl;
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    public String mint(String scope, String binding) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttl.toSeconds();
+        String payload = VERSION + "." + scope + "." + expiresAt;
+        return payload + "." + ENCODER.encodeToString(sign(payload, binding));
+    }
+
+    public boolean verify(String token, String scope, String binding) {
+        if (token == null || token.isBlank() || binding == null) return false;
+
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 4 || !VERSION.equals(parts[0]) || !scope.equals(parts[1])) return false;
+
+        long expiresAt;
+        byte[] signature;
+        try {
+            expiresAt = Long.parseLong(parts[2]);
+            signature = DECODER.decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (expiresAt < System.currentTimeMillis() / 1000) return false;
+
+        String payload = parts[0] + "." + parts[1] + "." + parts[2];
+        return MessageDigest.isEqual(sign(payload, binding), signature);
+    }
+
+    private byte[] sign(String payload, String binding) {
+        Mac mac = macs.get();
+        mac.update(payload.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) '|');
+        return mac.doFinal(binding.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package com.grabpic.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+@Service
+public class SingleFlightCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final long windowNanos;
+    private final int maxEntries;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedValue> recent = new ConcurrentHashMap<>();
+    // Bumped by every eviction of an album (striped, so colliding albums only skip some caching).
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public SingleFlightCache(@Value("${single-flight.window:1500ms}") Duration window,
+                             @Value("${single-flight.max-entries:5000}") int maxEntries) {
+        this.windowNanos = window.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID albumId, String endpoint, Supplier<T> loader) {
+        String key = albumId + ":" + endpoint;
+
+        CachedValue cached = recent.get(key);
+        if (cached != null && cached.expiresAt() - System.nanoTime() > 0) {
+            return (T) cached.value();
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+
+        try {
+            int stripe = stripe(albumId);
+            long generation = generations.get(stripe);
+            T value = loader.get();
+            if (windowNanos > 0 && generations.get(stripe) == generation) {
+                if (recent.size() >= maxEntries) purgeExpired();
+                CachedValue fresh = new CachedValue(value, System.nanoTime() + windowNanos);
+                recent.put(key, fresh);
+                // Checked again after the put, so an eviction racing the put either removes the
+                // entry itself or is seen here.
+                if (generations.get(stripe) != generation) recent.remove(key, fresh);
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Drops the album's cached results. Loads still running for it are not cached when they finish,
+     * and later callers start a new load instead of joining them.
+     */
+    public void evictAlbum(UUID albumId) {
+        generations.incrementAndGet(stripe(albumId));
+        String prefix = albumId + ":";
+        recent.keySet().removeIf(key -> key.startsWith(prefix));
+        inFlight.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static int stripe(UUID albumId) {
+        return Math.floorMod(albumId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        recent.values().removeIf(v -> v.expiresAt() - now <= 0);
+        if (recent.size() >= maxEntries) recent.clear();
+    }
+
+    private record CachedValue(Object value, long expiresAt) {}
+}
@@ -0,0 +1,63 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.RequestProfiler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+@Service
+public class SlowRequestLog {
+
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<SlowRequest> entries;
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    public SlowRequestLog(@Value("${profiler.slow-threshold:1s}") Duration threshold,
+                          @Value("${profiler.capacity:128}") int capacity) {
+        this.thresholdNanos = threshold.toNanos();
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    public boolean isSlow(long totalNanos) {
+        return totalNanos >= thresholdNanos;
+    }
+
+    public void record(String method, String path, int status, long totalNanos,
+                       long[] phaseNanos, int[] phaseCounts) {
+        Map<String, PhaseTiming> phases = new LinkedHashMap<>();
+        for (RequestProfiler.Phase phase : RequestProfiler.phases()) {
+            int i = phase.ordinal();
+            if (phaseCounts[i] > 0) {
+                phases.put(phase.name().toLowerCase(), new PhaseTiming(phaseNanos[i] / 1_000, phaseCounts[i]));
+            }
+        }
+
+        SlowRequest entry = new SlowRequest(Instant.now(), method, path, status, totalNanos / 1_000, phases);
+        int slot = (int) (nextSlot.getAndIncrement() % entries.length());
+        entries.set(slot, entry);
+    }
+
+    public List<SlowRequest> slowest() {
+        List<SlowRequest> snapshot = new ArrayList<>(entries.length());
+        for (int i = 0; i < entries.length(); i++) {
+            SlowRequest entry = entries.get(i);
+            if (entry != null) snapshot.add(entry);
+        }
+        snapshot.sort(Comparator.comparingLong(SlowRequest::totalMicros).reversed());
+        return snapshot;
+    }
+
+    public record PhaseTiming(long micros, int count) {}
+
+    public record SlowRequest(Instant at, String method, String path, int status, long totalMicros,
+                              Map<String, PhaseTiming> phases) {}
+}
@@ -0,0 +1,342 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.LazyClient;
+import com.grabpic.api.repository.SqsRedriveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers photo messages and sends them to SQS in batches. A publish waits briefly for room
+ * when the buffer is full. Messages that still cannot be sent, because the buffer stayed full,
+ * retries ran out or the instance is shutting down, are saved to {@code sqs_redrive} and sent
+ * again later by whichever instance claims them.
+ */
+@Service
+public class SqsBatchPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(SqsBatchPublisher.class);
+
+    static final int SQS_BATCH_LIMIT = 10;
+    static final int SQS_PAYLOAD_LIMIT_BYTES = 256 * 1024;
+    static final int REDRIVE_BATCH = 100;
+
+    private final LazyClient<SqsAsyncClient> sqsClient;
+    private final SqsRedriveRepository redriveRepository;
+    private final String queueUrl;
+    private final long lingerNanos;
+    private final long enqueueTimeoutNanos;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final Duration redriveLease;
+
+    private final BlockingQueue<PendingMessage> buffer;
+    private final Semaphore inFlightBatches;
+    private final int maxInFlightBatches;
+    private final ScheduledExecutorService retryScheduler;
+    private final Map<Long, PendingMessage> scheduledRetries = new ConcurrentHashMap<>();
+    private final AtomicLong retrySequence = new AtomicLong();
+    private final Thread flushThread;
+    private volatile boolean running = true;
+
+    private final Timer publishLatency;
+    private final Counter retriedMessages;
+    private final Counter deferredMessages;
+    private final Counter droppedMessages;
+
+    @Autowired
+    public SqsBatchPublisher(@Value("${aws.s3.region}") String region,
+                             @Value("${aws.sqs.queue-url}") String queueUrl,
+                             @Value("${aws.sqs.publisher.linger:50ms}") Duration linger,
+                             @Value("${aws.sqs.publisher.max-in-flight-batches:8}") int maxInFlightBatches,
+                             @Value("${aws.sqs.publisher.buffer-capacity:10000}") int bufferCapacity,
+                             @Value("${aws.sqs.publisher.enqueue-timeout:500ms}") Duration enqueueTimeout,
+                             @Value("${aws.sqs.publisher.max-attempts:5}") int maxAttempts,
+                             @Value("${aws.sqs.publisher.retry-backoff:200ms}") Duration retryBackoff,
+                             @Value("${aws.sqs.publisher.redrive-interval:1m}") Duration redriveInterval,
+                             @Value("${aws.sqs.publisher.redrive-lease:5m}") Duration redriveLease,
+                             @Value("${aws.sqs.http.connect-timeout:2s}") Duration connectTimeout,
+                             @Value("${aws.sqs.http.read-timeout:5s}") Duration readTimeout,
+                             @Value("${aws.sqs.api-call-timeout:10s}") Duration apiCallTimeout,
+                             SqsRedriveRepository redriveRepository,
+                             MeterRegistry meterRegistry) {
+        this(new LazyClient<>(() -> SqsAsyncClient.builder()
+                        .region(Region.of(region))
+                        .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                                .maxConcurrency(maxInFlightBatches)
+                                .connectionTimeout(connectTimeout)
+                                .readTimeout(readTimeout))
+                        .overrideConfiguration(ClientOverrideConfiguration.builder()
+                                .apiCallTimeout(apiCallTimeout)
+                                .build())
+                        .build()),
+                queueUrl, linger, maxInFlightBatches, bufferCapacity, enqueueTimeout, maxAttempts, retryBackoff,
+                redriveInterval, redriveLease, redriveRepository, meterRegistry);
+    }
+
+    SqsBatchPublisher(LazyClient<SqsAsyncClient> sqsClient, String queueUrl, Duration linger, int maxInFlightBatches,
+                      int bufferCapacity, Duration enqueueTimeout, int maxAttempts, Duration retryBackoff,
+                      Duration redriveInterval, Duration redriveLease, SqsRedriveRepository redriveRepository,
+                      MeterRegistry meterRegistry) {
+        this.sqsClient = sqsClient;
+        this.redriveRepository = redriveRepository;
+        this.queueUrl = queueUrl;
+        this.lingerNanos = linger.toNanos();
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoff.toMillis();
+        this.redriveLease = redriveLease;
+        this.buffer = new LinkedBlockingQueue<>(bufferCapacity);
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.inFlightBatches = new Semaphore(maxInFlightBatches);
+
+        meterRegistry.gauge("sqs.publisher.queue.depth", buffer, BlockingQueue::size);
+        meterRegistry.gauge("sqs.publisher.batches.in-flight", inFlightBatches,
+                s -> maxInFlightBatches - s.availablePermits());
+        this.publishLatency = Timer.builder("sqs.publisher.latency")
+                .description("Time from enqueue to SQS acknowledgement")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.retriedMessages = meterRegistry.counter("sqs.publisher.retried");
+        this.deferredMessages = meterRegistry.counter("sqs.publisher.deferred");
+        this.droppedMessages = meterRegistry.counter("sqs.publisher.dropped");
+
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sqs-publisher-retry");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flushThread = new Thread(this::flushLoop, "sqs-publisher");
+        this.flushThread.setDaemon(true);
+        this.flushThread.start();
+        this.retryScheduler.scheduleWithFixedDelay(this::redrive, redriveInterval.toMillis(),
+                redriveInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void warmUp() {
+        sqsClient.get();
+    }
+
+    public void publish(String messageBody) {
+        PendingMessage message = new PendingMessage(messageBody, messageBody.getBytes(StandardCharsets.UTF_8).length,
+                System.nanoTime(), 1, null);
+        boolean buffered = false;
+        try {
+            buffered = running && buffer.offer(message, enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffered) defer(List.of(message), "the buffer is full");
+    }
+
+    /**
+     * Sends saved messages again while the buffer has room for them. Claimed messages are
+     * deleted once SQS accepts them.
+     */
+    void redrive() {
+        try {
+            while (running && buffer.remainingCapacity() >= REDRIVE_BATCH) {
+                List<SqsRedriveRepository.RedriveMessage> claimed = redriveRepository.claim(REDRIVE_BATCH, redriveLease);
+                for (SqsRedriveRepository.RedriveMessage saved : claimed) {
+                    buffer.offer(new PendingMessage(saved.body(), saved.body().getBytes(StandardCharsets.UTF_8).length,
+                            System.nanoTime(), 1, saved.id()));
+                }
+                if (claimed.size() < REDRIVE_BATCH) return;
+            }
+        } catch (Exception e) {
+            log.warn("SQS re-drive failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Saves messages for a later re-drive. Messages that came from the re-drive table are
+     * already saved and become available again when their lease runs out.
+     */
+    private void defer(List<PendingMessage> messages, String reason) {
+        List<String> bodies = messages.stream()
+                .filter(message -> message.redriveId() == null)
+                .map(PendingMessage::body)
+                .toList();
+        if (bodies.isEmpty()) return;
+        try {
+            redriveRepository.save(bodies);
+            deferredMessages.increment(bodies.size());
+            log.warn("Saved {} SQS messages for a later re-drive because {}", bodies.size(), reason);
+        } catch (Exception e) {
+            droppedMessages.increment(bodies.size());
+            log.error("SQS messages dropped because {} and they could not be saved ({}): {}",
+                    reason, e.getMessage(), bodies);
+        }
+    }
+
+    private void flushLoop() {
+        PendingMessage carry = null;
+        while (running || carry != null || !buffer.isEmpty()) {
+            try {
+                PendingMessage first = carry != null ? carry : buffer.poll(100, TimeUnit.MILLISECONDS);
+                carry = null;
+                if (first == null) continue;
+
+                List<PendingMessage> batch = new ArrayList<>(SQS_BATCH_LIMIT);
+                batch.add(first);
+                int batchBytes = first.sizeBytes();
+                long deadline = first.enqueuedAt() + lingerNanos;
+
+                while (batch.size() < SQS_BATCH_LIMIT) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingMessage next = remaining > 0 && running
+                            ? buffer.poll(remaining, TimeUnit.NANOSECONDS)
+                            : buffer.poll();
+                    if (next == null) break;
+                    if (batchBytes + next.sizeBytes() > SQS_PAYLOAD_LIMIT_BYTES) {
+                        carry = next;
+                        break;
+                    }
+                    batch.add(next);
+                    batchBytes += next.sizeBytes();
+                }
+
+                inFlightBatches.acquire();
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                if (!running) Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("SQS publisher loop error: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void sendBatch(List<PendingMessage> batch) {
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            entries.add(SendMessageBatchRequestEntry.builder()
+                    .id(String.valueOf(i))
+                    .messageBody(batch.get(i).body())
+                    .build());
+        }
+
+        SendMessageBatchRequest request = SendMessageBatchRequest.builder()
+                .queueUrl(queueUrl)
+                .entries(entries)
+                .build();
+
+        try {
+            sqsClient.get().sendMessageBatch(request).whenComplete((response, error) -> {
+                inFlightBatches.release();
+                if (error != null) {
+                    log.warn("SQS batch send failed for {} messages: {}", batch.size(), error.getMessage());
+                    batch.forEach(this::retry);
+                } else {
+                    handleResponse(batch, response);
+                }
+            });
+        } catch (Exception e) {
+            inFlightBatches.release();
+            log.warn("SQS batch send could not be started: {}", e.getMessage());
+            batch.forEach(this::retry);
+        }
+    }
+
+    private void handleResponse(List<PendingMessage> batch, SendMessageBatchResponse response) {
+        long now = System.nanoTime();
+        List<Long> sent = new ArrayList<>();
+        for (SendMessageBatchResultEntry ok : response.successful()) {
+            PendingMessage message = batch.get(Integer.parseInt(ok.id()));
+            publishLatency.record(now - message.enqueuedAt(), TimeUnit.NANOSECONDS);
+            if (message.redriveId() != null) sent.add(message.redriveId());
+        }
+
+        for (BatchResultErrorEntry failed : response.failed()) {
+            PendingMessage message = batch.get(Integer.parseInt(failed.id()));
+            if (Boolean.TRUE.equals(failed.senderFault())) {
+                droppedMessages.increment();
+                log.error("SQS rejected message ({}: {}) — not retrying: {}",
+                        failed.code(), failed.message(), message.body());
+                if (message.redriveId() != null) sent.add(message.redriveId());
+            } else {
+                retry(message);
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            try {
+                redriveRepository.delete(sent);
+            } catch (Exception e) {
+                log.warn("Could not delete {} re-driven SQS messages; they will be sent again: {}",
+                        sent.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void retry(PendingMessage message) {
+        if (!running) {
+            defer(List.of(message), "the publisher is shutting down");
+            return;
+        }
+        if (message.attempt() >= maxAttempts) {
+            defer(List.of(message), "it failed " + message.attempt() + " attempts");
+            return;
+        }
+
+        retriedMessages.increment();
+        long delayMs = retryBackoffMs << (message.attempt() - 1);
+        long sequence = retrySequence.incrementAndGet();
+        scheduledRetries.put(sequence, new PendingMessage(message.body(), message.sizeBytes(),
+                message.enqueuedAt(), message.attempt() + 1, message.redriveId()));
+        retryScheduler.schedule(() -> {
+            PendingMessage next = scheduledRetries.remove(sequence);
+            if (next != null && !buffer.offer(next)) defer(List.of(next), "the buffer is full");
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            flushThread.join(5000);
+            inFlightBatches.tryAcquire(maxInFlightBatches, 5, TimeUnit.SECONDS);
+            retryScheduler.shutdownNow();
+            retryScheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<PendingMessage> unsent = new ArrayList<>(scheduledRetries.values());
+        scheduledRetries.clear();
+        buffer.drainTo(unsent);
+        if (!unsent.isEmpty()) defer(unsent, "the publisher is shutting down");
+        sqsClient.close();
+    }
+
+    /** A buffered message; {@code redriveId} is set when it was claimed from the re-drive table. */
+    private record PendingMessage(String body, int sizeBytes, long enqueuedAt, int attempt, Long redriveId) {}
+}
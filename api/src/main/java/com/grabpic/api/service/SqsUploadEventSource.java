@@ -0,0 +1,113 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.LazyClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class SqsUploadEventSource implements UploadEventSource {
+
+    private static final Logger log = LoggerFactory.getLogger(SqsUploadEventSource.class);
+
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+    private static final int SQS_BATCH_LIMIT = 10;
+
+    private final String queueUrl;
+    private final int waitTimeSeconds;
+    private final LazyClient<SqsClient> sqsClient;
+
+    public SqsUploadEventSource(@Value("${aws.s3.region}") String region,
+                                @Value("${upload-events.queue-url:}") String queueUrl,
+                                @Value("${upload-events.wait-time:20s}") Duration waitTime) {
+        this.queueUrl = queueUrl;
+        this.waitTimeSeconds = (int) waitTime.toSeconds();
+        this.sqsClient = queueUrl.isBlank() ? null : new LazyClient<>(() -> SqsClient.builder()
+                .region(Region.of(region))
+                .httpClientBuilder(ApacheHttpClient.builder()
+                        .socketTimeout(waitTime.plusSeconds(10)))
+                .build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sqsClient != null) sqsClient.close();
+    }
+
+    @Override
+    public List<UploadEvent> receive(int maxEvents) {
+        if (sqsClient == null) return List.of();
+
+        List<Message> messages = sqsClient.get().receiveMessage(ReceiveMessageRequest.builder()
+                .queueUrl(queueUrl)
+                .maxNumberOfMessages(Math.min(maxEvents, SQS_BATCH_LIMIT))
+                .waitTimeSeconds(waitTimeSeconds)
+                .build()).messages();
+
+        List<UploadEvent> events = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            events.add(new UploadEvent(parseCreatedKeys(message.body()), message.receiptHandle()));
+        }
+        return events;
+    }
+
+    @Override
+    public void acknowledge(List<UploadEvent> events) {
+        if (sqsClient == null || events.isEmpty()) return;
+
+        for (int from = 0; from < events.size(); from += SQS_BATCH_LIMIT) {
+            List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>();
+            List<UploadEvent> batch = events.subList(from, Math.min(from + SQS_BATCH_LIMIT, events.size()));
+            for (int i = 0; i < batch.size(); i++) {
+                entries.add(DeleteMessageBatchRequestEntry.builder()
+                        .id(String.valueOf(i))
+                        .receiptHandle(batch.get(i).receipt())
+                        .build());
+            }
+
+            DeleteMessageBatchResponse response = sqsClient.get().deleteMessageBatch(DeleteMessageBatchRequest.builder()
+                    .queueUrl(queueUrl)
+                    .entries(entries)
+                    .build());
+            if (response.hasFailed() && !response.failed().isEmpty()) {
+                log.warn("Could not acknowledge {} upload events; they will be redelivered", response.failed().size());
+            }
+        }
+    }
+
+    /**
+     * Extracts the object keys from an S3 event notification. Test events and non-create events
+     * yield no keys; a body that is not an S3 notification at all is logged and skipped.
+     */
+    static List<String> parseCreatedKeys(String body) {
+        List<String> keys = new ArrayList<>();
+        try {
+            for (JsonNode record : MAPPER.readTree(body).path("Records")) {
+                if (!record.path("eventName").asString("").startsWith("ObjectCreated:")) continue;
+                String encodedKey = record.path("s3").path("object").path("key").asString("");
+                if (!encodedKey.isEmpty()) keys.add(URLDecoder.decode(encodedKey, StandardCharsets.UTF_8));
+            }
+        } catch (Exception e) {
+            log.warn("Skipping unreadable upload event: {}", e.getMessage());
+        }
+        return keys;
+    }
+}
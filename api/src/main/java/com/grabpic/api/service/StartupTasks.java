@@ -0,0 +1,80 @@
+package com.grabpic.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Work that used to block startup: building the AWS clients and applying the bucket lifecycle
+ * and CORS rules. It runs once the application is ready, off the main thread, and the bucket
+ * step is skipped when another instance has already applied the same configuration.
+ */
+@Component
+public class StartupTasks {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTasks.class);
+
+    private static final String BUCKET_CONFIG_KEY_PREFIX = "s3:bucket-config:";
+
+    private final S3StorageService s3StorageService;
+    private final SqsBatchPublisher sqsBatchPublisher;
+    private final StringRedisTemplate redisTemplate;
+    private final boolean configureBucket;
+    private final Duration bucketConfigTtl;
+
+    public StartupTasks(S3StorageService s3StorageService,
+                        SqsBatchPublisher sqsBatchPublisher,
+                        StringRedisTemplate redisTemplate,
+                        @Value("${aws.s3.configure-bucket:true}") boolean configureBucket,
+                        @Value("${aws.s3.configure-bucket-ttl:7d}") Duration bucketConfigTtl) {
+        this.s3StorageService = s3StorageService;
+        this.sqsBatchPublisher = sqsBatchPublisher;
+        this.redisTemplate = redisTemplate;
+        this.configureBucket = configureBucket;
+        this.bucketConfigTtl = bucketConfigTtl;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        Thread t = new Thread(this::run, "startup-tasks");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void run() {
+        try {
+            s3StorageService.warmUp();
+            sqsBatchPublisher.warmUp();
+        } catch (Exception e) {
+            log.warn("AWS client warm-up failed, clients will be built on first use: {}", e.getMessage());
+        }
+        if (configureBucket) configureBucketOnce();
+    }
+
+    private void configureBucketOnce() {
+        String fingerprint = s3StorageService.bucketConfigurationFingerprint();
+        String key = BUCKET_CONFIG_KEY_PREFIX
+                + DigestUtils.md5DigestAsHex(fingerprint.getBytes(StandardCharsets.UTF_8));
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) return;
+        } catch (Exception e) {
+            log.debug("Bucket configuration marker unavailable, applying anyway: {}", e.getMessage());
+        }
+
+        if (!s3StorageService.ensureLifecycleRules()) return;
+
+        try {
+            redisTemplate.opsForValue().set(key, fingerprint, bucketConfigTtl);
+        } catch (Exception e) {
+            log.debug("Could not record bucket configuration marker: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.grabpic.api.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate top-K counter in fixed memory: a count-min sketch estimates every key's count and
+ * a small candidate map keeps the keys whose estimate beat the current floor. Updates are atomic
+ * increments and never lock. Every {@code decayIntervalNanos} all counts are halved, so the
+ * ranking follows recent traffic rather than totals since startup.
+ */
+final class TopKSketch {
+
+    private static final int DEPTH = 4;
+
+    private final int width;
+    private final int mask;
+    private final AtomicLongArray counts;
+    private final int k;
+    private final int maxCandidates;
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+    private volatile long floor;
+
+    private final long decayIntervalNanos;
+    private final AtomicLong nextDecayAt;
+
+    TopKSketch(int width, int k, long decayIntervalNanos, long nowNanos) {
+        this.width = Integer.highestOneBit(Math.max(width, 16));
+        this.mask = this.width - 1;
+        this.counts = new AtomicLongArray(DEPTH * this.width);
+        this.k = k;
+        this.maxCandidates = k * 2;
+        this.decayIntervalNanos = decayIntervalNanos;
+        this.nextDecayAt = new AtomicLong(nowNanos + decayIntervalNanos);
+    }
+
+    void add(String key, long nowNanos) {
+        long next = nextDecayAt.get();
+        if (nowNanos - next >= 0 && nextDecayAt.compareAndSet(next, nowNanos + decayIntervalNanos)) {
+            decay();
+        }
+
+        long hash = mix(key.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + ((h1 + row * h2) & mask);
+            estimate = Math.min(estimate, counts.incrementAndGet(index));
+        }
+
+        if (candidates.containsKey(key) || candidates.size() < maxCandidates) {
+            candidates.put(key, estimate);
+        } else if (estimate > floor) {
+            candidates.put(key, estimate);
+            evictSmallest();
+        }
+    }
+
+    List<HeavyHitters.HeavyHitter> top() {
+        return candidates.keySet().stream()
+                .map(key -> new HeavyHitters.HeavyHitter(key, estimate(key)))
+                .filter(hitter -> hitter.count() > 0)
+                .sorted(Comparator.comparingLong(HeavyHitters.HeavyHitter::count).reversed())
+                .limit(k)
+                .toList();
+    }
+
+    long estimate(String key) {
+        long hash = mix(key.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counts.get(row * width + ((h1 + row * h2) & mask)));
+        }
+        return estimate;
+    }
+
+    private void evictSmallest() {
+        // Racing evictions may drop one candidate too many; the next add refills it.
+        while (candidates.size() > maxCandidates) {
+            Map.Entry<String, Long> smallest = null;
+            for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+                if (smallest == null || entry.getValue() < smallest.getValue()) smallest = entry;
+            }
+            if (smallest == null) return;
+            candidates.remove(smallest.getKey(), smallest.getValue());
+        }
+        floor = candidates.values().stream().mapToLong(Long::longValue).min().orElse(0);
+    }
+
+    private void decay() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.getAndUpdate(i, count -> count >> 1);
+        }
+        candidates.replaceAll((key, count) -> count >> 1);
+        candidates.values().removeIf(count -> count == 0);
+        floor = floor >> 1;
+    }
+
+    private static long mix(int h) {
+        long z = h * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,14 +1,19 @@
 package com.grabpic.api.service;
 
+import com.grabpic.api.config.DependencyGuard;
+import com.grabpic.api.config.DependencyGuards;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
@@ -24,7 +29,25 @@ public class TurnstileService {
     @Value("${turnstile.allowed-hostnames:}")
     private String allowedHostnamesRaw;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final DependencyGuard turnstileGuard;
+
+    public TurnstileService(@Value("${turnstile.connect-timeout:2s}") Duration connectTimeout,
+                            @Value("${turnstile.read-timeout:3s}") Duration readTimeout,
+                            DependencyGuards dependencyGuards) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.turnstileGuard = dependencyGuards.forDependency("turnstile");
+    }
+
+    public boolean isEnabled() {
+        return secretKey != null && !secretKey.isEmpty();
+    }
 
     public boolean isHuman(String token) {
         return isHuman(token, null);
@@ -50,7 +73,7 @@ public class TurnstileService {
 
         try {
             @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(url, request, Map.class);
+            Map<String, Object> response = turnstileGuard.call(() -> restTemplate.postForObject(url, request, Map.class));
             if (response == null || !Boolean.TRUE.equals(response.get("success"))) {
                 return false;
             }
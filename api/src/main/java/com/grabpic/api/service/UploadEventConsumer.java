@@ -0,0 +1,136 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.model.AccessMode;
+import com.grabpic.api.repository.PhotoBulkRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+
+@Service
+public class UploadEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadEventConsumer.class);
+
+    private static final long MAX_PHOTO_SIZE_BYTES = 10 * 1024 * 1024;
+    private static final long ERROR_BACKOFF_MS = 5_000;
+
+    private final UploadEventSource eventSource;
+    private final S3StorageService s3StorageService;
+    private final PhotoRegistrationService photoRegistrationService;
+    private final boolean enabled;
+    private final int maxEvents;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public UploadEventConsumer(UploadEventSource eventSource,
+                               S3StorageService s3StorageService,
+                               PhotoRegistrationService photoRegistrationService,
+                               @Value("${upload-events.enabled:false}") boolean enabled,
+                               @Value("${upload-events.max-messages:10}") int maxEvents) {
+        this.eventSource = eventSource;
+        this.s3StorageService = s3StorageService;
+        this.photoRegistrationService = photoRegistrationService;
+        this.enabled = enabled;
+        this.maxEvents = maxEvents;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        worker = Thread.ofPlatform().name("upload-events").daemon().start(this::run);
+        log.info("Registering uploads from S3 events");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                pollOnce();
+            } catch (Exception e) {
+                if (!running) return;
+                log.warn("Upload event batch failed, will be redelivered: {}", e.getMessage());
+                try {
+                    Thread.sleep(ERROR_BACKOFF_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives one batch of events, registers the uploads per album and acknowledges the batch.
+     * Anything that throws leaves the whole batch unacknowledged; registration is idempotent.
+     */
+    int pollOnce() {
+        List<UploadEventSource.UploadEvent> events = eventSource.receive(maxEvents);
+        if (events.isEmpty()) return 0;
+
+        Map<UUID, List<PhotoBulkRepository.NewPhoto>> byAlbum = new LinkedHashMap<>();
+        List<String> rejected = new ArrayList<>();
+        for (UploadEventSource.UploadEvent event : events) {
+            for (String key : event.storageKeys()) {
+                classify(key, byAlbum, rejected);
+            }
+        }
+
+        int registered = 0;
+        for (Map.Entry<UUID, List<PhotoBulkRepository.NewPhoto>> album : byAlbum.entrySet()) {
+            registered += photoRegistrationService.register(album.getKey(), album.getValue());
+        }
+        if (!rejected.isEmpty()) {
+            log.warn("Deleting {} uploads that failed validation", rejected.size());
+            s3StorageService.deleteObjects(rejected);
+        }
+
+        eventSource.acknowledge(events);
+        return registered;
+    }
+
+    private void classify(String key, Map<UUID, List<PhotoBulkRepository.NewPhoto>> byAlbum, List<String> rejected) {
+        Matcher matcher = S3StorageService.UPLOAD_KEY_PATTERN.matcher(key);
+        if (!matcher.matches()) return;
+
+        Optional<S3StorageService.UploadedObject> object = s3StorageService.describeUpload(key);
+        if (object.isEmpty()) return;
+
+        // Uploads presigned without metadata come from older clients, which register them themselves.
+        Map<String, String> metadata = object.get().metadata();
+        String accessMode = metadata.get(S3StorageService.METADATA_ACCESS_MODE);
+        if (accessMode == null) return;
+
+        String albumId = matcher.group(1);
+        long size = object.get().size();
+        if (!albumId.equalsIgnoreCase(metadata.get(S3StorageService.METADATA_ALBUM_ID))
+                || size <= 0 || size > MAX_PHOTO_SIZE_BYTES
+                || (!accessMode.equals(AccessMode.PUBLIC.name()) && !accessMode.equals(AccessMode.PROTECTED.name()))) {
+            rejected.add(key);
+            return;
+        }
+
+        byAlbum.computeIfAbsent(UUID.fromString(albumId), id -> new ArrayList<>())
+                .add(new PhotoBulkRepository.NewPhoto(key, AccessMode.valueOf(accessMode), object.get().checksumSha256()));
+    }
+}
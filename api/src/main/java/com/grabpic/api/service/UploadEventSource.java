@@ -0,0 +1,16 @@
+package com.grabpic.api.service;
+
+import java.util.List;
+
+/**
+ * Source of "object created" notifications for uploaded photos. Each event is one queue message,
+ * which may name several keys; it is redelivered until acknowledged.
+ */
+public interface UploadEventSource {
+
+    List<UploadEvent> receive(int maxEvents);
+
+    void acknowledge(List<UploadEvent> events);
+
+    record UploadEvent(List<String> storageKeys, String receipt) {}
+}
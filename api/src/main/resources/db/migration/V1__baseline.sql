@@ -0,0 +1,35 @@
+-- Schema as it existed before migrations were introduced. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE shared_albums (
+    id         UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    title      VARCHAR(255) NOT NULL,
+    host_id    VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6)
+);
+
+CREATE TABLE photos (
+    id          UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    album_id    UUID NOT NULL REFERENCES shared_albums (id) ON DELETE CASCADE,
+    storage_url VARCHAR(255) NOT NULL,
+    access_mode VARCHAR(255) NOT NULL CHECK (access_mode IN ('PUBLIC', 'PROTECTED')),
+    processed   BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE TABLE photo_embeddings (
+    id       UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    photo_id UUID NOT NULL REFERENCES photos (id) ON DELETE CASCADE,
+    box_area JSONB
+);
+
+-- The embedding column needs pgvector. Environments without it (local and test
+-- databases) get the rest of the schema; face search is unavailable there.
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS vector;
+    ALTER TABLE photo_embeddings ADD COLUMN embedding vector(512);
+EXCEPTION
+    WHEN undefined_file OR feature_not_supported OR insufficient_privilege THEN
+        RAISE NOTICE 'pgvector is not available, photo_embeddings.embedding not created';
+END
+$$;
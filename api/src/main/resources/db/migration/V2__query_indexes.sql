@@ -0,0 +1,32 @@
+-- Indexes for the queries in PhotoRepository, SharedAlbumRepository and the face
+-- search in ai-face-worker. IF NOT EXISTS because some of these were created by
+-- hand on databases that predate migrations.
+
+-- findByHostId (album list) and the host join in countByAlbumHostId. The INCLUDE
+-- columns let the album list be answered from the index alone.
+CREATE INDEX IF NOT EXISTS idx_shared_albums_host_id
+    ON shared_albums (host_id) INCLUDE (id, title, created_at);
+
+-- findByAlbumId, countByAlbumId and the face search join.
+CREATE INDEX IF NOT EXISTS idx_photos_album_id
+    ON photos (album_id);
+
+-- Backfill only ever looks for the unprocessed photos of one album.
+CREATE INDEX IF NOT EXISTS idx_photos_album_id_unprocessed
+    ON photos (album_id) WHERE processed = FALSE;
+
+-- Lazy loading of Photo.faces, photo deletes, and the face search join.
+CREATE INDEX IF NOT EXISTS idx_photo_embeddings_photo_id
+    ON photo_embeddings (photo_id);
+
+-- Cosine-distance face search. Previously created at startup by the search API.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'photo_embeddings' AND column_name = 'embedding') THEN
+        CREATE INDEX IF NOT EXISTS idx_photo_embeddings_hnsw
+            ON photo_embeddings USING hnsw (embedding vector_cosine_ops)
+            WITH (m = 16, ef_construction = 64);
+    END IF;
+END
+$$;
@@ -0,0 +1,21 @@
+-- Uploads can be registered both by the client and by the S3 event consumer; the
+-- storage key is what makes registration idempotent. Identical uploads within a host's
+-- albums share one object (V4), so a key is unique per album rather than globally.
+
+-- Both paths could already have registered the same key. Keep one row per album and key:
+-- the processed one, else one that has faces. Its embeddings go with it (ON DELETE CASCADE).
+DELETE FROM photos p
+USING (
+    SELECT id,
+           row_number() OVER (
+               PARTITION BY album_id, storage_url
+               ORDER BY processed DESC,
+                        EXISTS (SELECT 1 FROM photo_embeddings e WHERE e.photo_id = photos.id) DESC,
+                        id
+           ) AS keep_rank
+    FROM photos
+) ranked
+WHERE p.id = ranked.id AND ranked.keep_rank > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_photos_album_storage_url ON photos (album_id, storage_url);
+CREATE INDEX IF NOT EXISTS idx_photos_storage_url ON photos (storage_url);
@@ -0,0 +1,6 @@
+-- SHA-256 of the uploaded bytes (base64, as S3 reports it). Identical uploads within a host's
+-- albums share one object; V3 already made the storage key unique per album only.
+ALTER TABLE photos ADD COLUMN IF NOT EXISTS content_hash VARCHAR(44);
+
+CREATE INDEX IF NOT EXISTS idx_photos_content_hash ON photos (content_hash)
+    WHERE content_hash IS NOT NULL AND processed;
@@ -0,0 +1,37 @@
+-- Archived albums keep their photos and faces out of the hot tables, so the photo
+-- indexes and the HNSW graph only cover albums that are still in use. The archive
+-- tables are plain copies with no search index.
+ALTER TABLE shared_albums ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP(6);
+ALTER TABLE shared_albums ADD COLUMN IF NOT EXISTS last_active_at TIMESTAMP(6);
+UPDATE shared_albums SET last_active_at = COALESCE(created_at, now()) WHERE last_active_at IS NULL;
+
+-- The archival job looks for hot albums that have been idle the longest.
+CREATE INDEX IF NOT EXISTS idx_shared_albums_last_active_at
+    ON shared_albums (last_active_at) WHERE archived_at IS NULL;
+
+CREATE TABLE IF NOT EXISTS archived_photos (
+    id           UUID PRIMARY KEY,
+    album_id     UUID NOT NULL REFERENCES shared_albums (id) ON DELETE CASCADE,
+    storage_url  VARCHAR(255) NOT NULL,
+    access_mode  VARCHAR(255) NOT NULL,
+    processed    BOOLEAN NOT NULL,
+    content_hash VARCHAR(44)
+);
+CREATE INDEX IF NOT EXISTS idx_archived_photos_album_id ON archived_photos (album_id);
+CREATE INDEX IF NOT EXISTS idx_archived_photos_storage_url ON archived_photos (storage_url);
+
+CREATE TABLE IF NOT EXISTS archived_photo_embeddings (
+    id       UUID PRIMARY KEY,
+    photo_id UUID NOT NULL REFERENCES archived_photos (id) ON DELETE CASCADE,
+    box_area JSONB
+);
+CREATE INDEX IF NOT EXISTS idx_archived_photo_embeddings_photo_id ON archived_photo_embeddings (photo_id);
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'photo_embeddings' AND column_name = 'embedding') THEN
+        ALTER TABLE archived_photo_embeddings ADD COLUMN IF NOT EXISTS embedding vector(512);
+    END IF;
+END
+$$;
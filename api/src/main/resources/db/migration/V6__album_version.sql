@@ -0,0 +1,3 @@
+-- Bumped whenever an album's cached summary changes (archive, rehydrate), so a cache
+-- fill that read the album before the change cannot overwrite the newer state.
+ALTER TABLE shared_albums ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
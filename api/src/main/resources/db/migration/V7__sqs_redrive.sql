@@ -0,0 +1,10 @@
+-- Photo messages the publisher could not hand to SQS: its buffer was full, its retries ran
+-- out, or the instance shut down first. Any instance re-drives them and deletes each row
+-- once SQS accepts the message; a claimed row becomes available again after its lease.
+CREATE TABLE IF NOT EXISTS sqs_redrive (
+    id           BIGSERIAL PRIMARY KEY,
+    body         TEXT NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL DEFAULT now(),
+    available_at TIMESTAMP(6) NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS idx_sqs_redrive_available_at ON sqs_redrive (available_at);
@@ -0,0 +1,22 @@
+-- Face boxes as int4[] (x, y, w, h) instead of JSONB, so listings read them without parsing
+-- JSON per face. Existing rows hold {"x":..,"y":..,"w":..,"h":..}; rows copied from a
+-- duplicate upload may hold [x, y, w, h]. The face worker writes the array from this version.
+ALTER TABLE photo_embeddings ALTER COLUMN box_area TYPE INT4[] USING CASE
+    WHEN box_area IS NULL THEN NULL
+    WHEN jsonb_typeof(box_area) = 'array' THEN ARRAY[
+        (box_area->>0)::numeric::int4, (box_area->>1)::numeric::int4,
+        (box_area->>2)::numeric::int4, (box_area->>3)::numeric::int4]
+    ELSE ARRAY[
+        (box_area->>'x')::numeric::int4, (box_area->>'y')::numeric::int4,
+        (box_area->>'w')::numeric::int4, (box_area->>'h')::numeric::int4]
+END;
+
+ALTER TABLE archived_photo_embeddings ALTER COLUMN box_area TYPE INT4[] USING CASE
+    WHEN box_area IS NULL THEN NULL
+    WHEN jsonb_typeof(box_area) = 'array' THEN ARRAY[
+        (box_area->>0)::numeric::int4, (box_area->>1)::numeric::int4,
+        (box_area->>2)::numeric::int4, (box_area->>3)::numeric::int4]
+    ELSE ARRAY[
+        (box_area->>'x')::numeric::int4, (box_area->>'y')::numeric::int4,
+        (box_area->>'w')::numeric::int4, (box_area->>'h')::numeric::int4]
+END;
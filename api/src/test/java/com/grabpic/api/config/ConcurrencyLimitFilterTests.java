@@ -0,0 +1,82 @@
+package com.grabpic.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTests {
+
+	@Test
+	void routesThatAreSlowByNatureGrowToTheirCap() {
+		ConcurrencyLimitFilter.GradientLimiter limiter = new ConcurrencyLimitFilter.GradientLimiter(2, 60, 2.0, 0.9);
+
+		for (int i = 0; i < 200; i++) saturate(limiter, Duration.ofMillis(800));
+
+		assertThat(limiter.limit()).isEqualTo(60);
+	}
+
+	@Test
+	void queueingBeyondTheToleranceShrinksTheLimit() {
+		ConcurrencyLimitFilter.GradientLimiter limiter = new ConcurrencyLimitFilter.GradientLimiter(2, 60, 2.0, 0.9);
+		for (int i = 0; i < 200; i++) saturate(limiter, Duration.ofMillis(50));
+		assertThat(limiter.limit()).isEqualTo(60);
+
+		saturate(limiter, Duration.ofMillis(60));
+		assertThat(limiter.limit()).isEqualTo(60);
+
+		for (int i = 0; i < 5; i++) saturate(limiter, Duration.ofMillis(400));
+		assertThat(limiter.limit()).isLessThan(30);
+	}
+
+	@Test
+	void serverErrorsBackOff() {
+		ConcurrencyLimitFilter.GradientLimiter limiter = new ConcurrencyLimitFilter.GradientLimiter(2, 60, 2.0, 0.9);
+
+		assertThat(limiter.tryAcquire()).isTrue();
+		limiter.release(Duration.ofMillis(50).toNanos(), true);
+
+		assertThat(limiter.limit()).isEqualTo(27);
+	}
+
+	@Test
+	void mostlyIdleLimiterIgnoresLatency() {
+		ConcurrencyLimitFilter.GradientLimiter limiter = new ConcurrencyLimitFilter.GradientLimiter(2, 60, 2.0, 0.9);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(limiter.tryAcquire()).isTrue();
+			limiter.release(Duration.ofMillis(i % 2 == 0 ? 10 : 2000).toNanos(), false);
+		}
+
+		assertThat(limiter.limit()).isEqualTo(30);
+	}
+
+	@Test
+	void rejectsRequestsOverTheLimitOfTheirRouteClass() throws Exception {
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(true, 1, 2.0, 0.9, 2, 2, 2, 2);
+		assertThat(filter.currentLimit(ConcurrencyLimitFilter.RouteClass.GUEST)).isEqualTo(1);
+
+		MockHttpServletResponse nestedGuest = new MockHttpServletResponse();
+		MockHttpServletResponse nestedHost = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/albums/a/guest/details"),
+				new MockHttpServletResponse(), (request, response) -> {
+					filter.doFilter(new MockHttpServletRequest("GET", "/api/albums/a/guest/details"), nestedGuest,
+							(r, s) -> {});
+					filter.doFilter(new MockHttpServletRequest("GET", "/api/albums/a/photos"), nestedHost,
+							(r, s) -> {});
+				});
+
+		assertThat(nestedGuest.getStatus()).isEqualTo(503);
+		assertThat(nestedGuest.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(nestedHost.getStatus()).isEqualTo(200);
+	}
+
+	private static void saturate(ConcurrencyLimitFilter.GradientLimiter limiter, Duration rtt) {
+		int acquired = 0;
+		while (limiter.tryAcquire()) acquired++;
+		for (int i = 0; i < acquired; i++) limiter.release(rtt.toNanos(), false);
+	}
+}
@@ -0,0 +1,110 @@
+package com.grabpic.api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DependencyGuardTests {
+
+	private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+	private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void opensAfterConsecutiveFailuresOnly() {
+		DependencyGuard guard = guard(1);
+
+		fail(guard);
+		fail(guard);
+		succeed(guard);
+		fail(guard);
+		fail(guard);
+		assertThat(guard.isOpen()).isFalse();
+
+		fail(guard);
+		assertThat(guard.isOpen()).isTrue();
+
+		int before = calls.get();
+		assertThatThrownBy(() -> succeed(guard))
+				.isInstanceOf(DependencyUnavailableException.class)
+				.hasMessage("s3: circuit open");
+		assertThat(calls).hasValue(before);
+	}
+
+	@Test
+	void letsASingleProbeThroughOnceTheOpenWindowPasses() {
+		DependencyGuard guard = guard(2);
+		open(guard);
+		clock.addAndGet(OPEN_DURATION.toNanos());
+
+		String result = guard.call(() -> {
+			assertThatThrownBy(() -> succeed(guard))
+					.isInstanceOf(DependencyUnavailableException.class)
+					.hasMessage("s3: circuit open");
+			return "probe";
+		});
+
+		assertThat(result).isEqualTo("probe");
+		assertThat(guard.isOpen()).isFalse();
+		succeed(guard);
+		fail(guard);
+		assertThat(guard.isOpen()).isFalse();
+	}
+
+	@Test
+	void failedProbeOpensTheCircuitAgain() {
+		DependencyGuard guard = guard(1);
+		open(guard);
+		clock.addAndGet(OPEN_DURATION.toNanos());
+
+		fail(guard);
+
+		assertThat(guard.isOpen()).isTrue();
+		assertThatThrownBy(() -> succeed(guard)).isInstanceOf(DependencyUnavailableException.class);
+		clock.addAndGet(OPEN_DURATION.toNanos());
+		succeed(guard);
+		assertThat(guard.isOpen()).isFalse();
+	}
+
+	@Test
+	void rejectsCallsThatWaitTooLongForTheBulkhead() {
+		DependencyGuard guard = new DependencyGuard("s3", 1, Duration.ofMillis(50), 3, OPEN_DURATION);
+
+		guard.run(() -> {
+			long start = System.nanoTime();
+			assertThatThrownBy(() -> guard.run(() -> {}))
+					.isInstanceOf(DependencyUnavailableException.class)
+					.hasMessage("s3: too many concurrent calls");
+			assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(50).toNanos());
+		});
+
+		guard.run(() -> {});
+		assertThat(guard.isOpen()).isFalse();
+	}
+
+	private DependencyGuard guard(int maxConcurrent) {
+		return new DependencyGuard("s3", maxConcurrent, Duration.ofMillis(10), 3, OPEN_DURATION, clock::get);
+	}
+
+	private void open(DependencyGuard guard) {
+		for (int i = 0; i < 3; i++) fail(guard);
+		assertThat(guard.isOpen()).isTrue();
+	}
+
+	private void succeed(DependencyGuard guard) {
+		guard.run(calls::incrementAndGet);
+	}
+
+	private void fail(DependencyGuard guard) {
+		assertThatThrownBy(() -> guard.run(() -> {
+			calls.incrementAndGet();
+			throw new IllegalStateException("S3 is down");
+		})).isInstanceOf(IllegalStateException.class);
+	}
+}
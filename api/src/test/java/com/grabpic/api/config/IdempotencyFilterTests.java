@@ -0,0 +1,129 @@
+package com.grabpic.api.config;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import redis.embedded.RedisServer;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTests {
+
+	private static RedisServer redis;
+	private static LettuceConnectionFactory connectionFactory;
+	private static StringRedisTemplate redisTemplate;
+
+	private final IdempotencyFilter filter = new IdempotencyFilter(redisTemplate, Duration.ofHours(1),
+			Duration.ofMinutes(1));
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@BeforeAll
+	static void startRedis() throws IOException {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		redis = RedisServer.newRedisServer().port(port).build();
+		redis.start();
+
+		connectionFactory = new LettuceConnectionFactory("localhost", port);
+		connectionFactory.afterPropertiesSet();
+		connectionFactory.start();
+		redisTemplate = new StringRedisTemplate(connectionFactory);
+	}
+
+	@AfterAll
+	static void stopRedis() throws IOException {
+		connectionFactory.destroy();
+		redis.stop();
+	}
+
+	@BeforeEach
+	void flush() {
+		redisTemplate.execute(connection -> {
+			connection.serverCommands().flushAll();
+			return null;
+		}, true);
+	}
+
+	@Test
+	void replaysTheStoredResponseWithItsHeaders() throws Exception {
+		MockHttpServletResponse first = send("{\"a\":1}", respond(201, "session-1"));
+		MockHttpServletResponse replayed = send("{\"a\":1}", respond(201, "session-2"));
+
+		assertThat(executions).hasValue(1);
+		assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+		assertThat(replayed.getStatus()).isEqualTo(201);
+		assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(replayed.getHeader("X-Session-Token")).isEqualTo("session-1");
+		assertThat(replayed.getContentType()).startsWith("application/json");
+		assertThat(replayed.getContentAsString()).isEqualTo("{\"ok\":true}");
+	}
+
+	@Test
+	void failedResponsesAreNotStored() throws Exception {
+		send("{\"a\":1}", respond(400, null));
+		MockHttpServletResponse retried = send("{\"a\":1}", respond(200, null));
+
+		assertThat(executions).hasValue(2);
+		assertThat(retried.getStatus()).isEqualTo(200);
+		assertThat(retried.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+	}
+
+	@Test
+	void sameKeyWithADifferentRequestIsRejected() throws Exception {
+		send("{\"a\":1}", respond(200, null));
+		MockHttpServletResponse conflicting = send("{\"a\":2}", respond(200, null));
+
+		assertThat(executions).hasValue(1);
+		assertThat(conflicting.getStatus()).isEqualTo(422);
+	}
+
+	@Test
+	void requestWhileTheFirstIsPendingIsToldToRetry() throws Exception {
+		MockHttpServletResponse[] concurrent = new MockHttpServletResponse[1];
+		MockHttpServletResponse first = send("{\"a\":1}", (request, response) -> {
+			concurrent[0] = send("{\"a\":1}", respond(200, null));
+			respond(200, null).doFilter(request, response);
+		});
+
+		assertThat(first.getStatus()).isEqualTo(200);
+		assertThat(concurrent[0].getStatus()).isEqualTo(409);
+		assertThat(concurrent[0].getHeader("Retry-After")).isEqualTo("1");
+		assertThat(executions).hasValue(1);
+	}
+
+	private MockHttpServletResponse send(String body, FilterChain chain) throws IOException, ServletException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/albums");
+		request.addHeader(IdempotencyFilter.HEADER, "key-12345");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private FilterChain respond(int status, String sessionToken) {
+		return (request, response) -> {
+			executions.incrementAndGet();
+			HttpServletResponse httpRes = (HttpServletResponse) response;
+			httpRes.setStatus(status);
+			if (sessionToken != null) httpRes.setHeader("X-Session-Token", sessionToken);
+			httpRes.setContentType("application/json");
+			httpRes.getOutputStream().write("{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+		};
+	}
+}
@@ -0,0 +1,61 @@
+package com.grabpic.api.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfilingDataSourceTests {
+
+	private static EmbeddedPostgres postgres;
+	private static ProfilingDataSource dataSource;
+
+	@BeforeAll
+	static void start() throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		dataSource = new ProfilingDataSource(new LazyConnectionDataSourceProxy(postgres.getPostgresDatabase()));
+	}
+
+	@AfterAll
+	static void stop() throws IOException {
+		postgres.close();
+	}
+
+	@AfterEach
+	void end() {
+		RequestProfiler.end();
+	}
+
+	@Test
+	void eachStatementCountsOnceAsDatabaseTime() {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		RequestProfiler.begin();
+
+		jdbc.queryForObject("SELECT pg_sleep(0.05)::text", String.class);
+		jdbc.queryForObject("SELECT ?::int", Integer.class, 1);
+
+		int db = RequestProfiler.Phase.DB.ordinal();
+		assertThat(RequestProfiler.phaseCounts()[db]).isEqualTo(2);
+		assertThat(RequestProfiler.phaseNanos()[db]).isGreaterThanOrEqualTo(50_000_000L);
+	}
+
+	@Test
+	void commitIsDatabaseTime() {
+		TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		RequestProfiler.begin();
+
+		transaction.executeWithoutResult(status -> jdbc.queryForObject("SELECT 1", Integer.class));
+
+		assertThat(RequestProfiler.phaseCounts()[RequestProfiler.Phase.DB.ordinal()]).isEqualTo(2);
+	}
+}
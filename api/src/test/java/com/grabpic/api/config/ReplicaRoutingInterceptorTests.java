@@ -0,0 +1,149 @@
+package com.grabpic.api.config;
+
+import com.grabpic.api.service.ReplicaLagGuard;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.method.HandlerMethod;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingInterceptorTests {
+
+	private static RedisServer redis;
+	private static LettuceConnectionFactory connectionFactory;
+	private static StringRedisTemplate redisTemplate;
+	private static RedisMessageListenerContainer listenerContainer;
+
+	@BeforeAll
+	static void startRedis() throws IOException {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		redis = RedisServer.newRedisServer().port(port).build();
+		redis.start();
+
+		connectionFactory = new LettuceConnectionFactory("localhost", port);
+		connectionFactory.afterPropertiesSet();
+		connectionFactory.start();
+		redisTemplate = new StringRedisTemplate(connectionFactory);
+		listenerContainer = new RedisMessageListenerContainer();
+		listenerContainer.setConnectionFactory(connectionFactory);
+		listenerContainer.afterPropertiesSet();
+		listenerContainer.start();
+	}
+
+	@AfterAll
+	static void stopRedis() throws IOException {
+		listenerContainer.stop();
+		connectionFactory.destroy();
+		redis.stop();
+	}
+
+	@AfterEach
+	void clear() {
+		ReplicaRoutingContext.clear();
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void readOnlyHandlerUsesTheReplicaWhateverItsMethod() throws Exception {
+		ReplicaRoutingInterceptor interceptor = new ReplicaRoutingInterceptor(guard());
+
+		assertThat(pinned(interceptor, "POST", "search")).isFalse();
+		assertThat(pinned(interceptor, "GET", "details")).isFalse();
+	}
+
+	@Test
+	void otherHandlersArePinnedToThePrimary() throws Exception {
+		ReplicaRoutingInterceptor interceptor = new ReplicaRoutingInterceptor(guard());
+
+		assertThat(pinned(interceptor, "GET", "report")).isTrue();
+		assertThat(pinned(interceptor, "POST", "save")).isTrue();
+	}
+
+	@Test
+	void writerReadsFromThePrimaryOnEveryInstance() throws Exception {
+		ReplicaRoutingInterceptor writer = new ReplicaRoutingInterceptor(guard());
+		ReplicaRoutingInterceptor reader = new ReplicaRoutingInterceptor(guard());
+		authenticate("user-1");
+
+		pinned(writer, "POST", "save");
+		assertThat(pinned(writer, "GET", "details")).isTrue();
+
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!pinned(reader, "GET", "details") && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(pinned(reader, "GET", "details")).isTrue();
+
+		authenticate("user-2");
+		assertThat(pinned(reader, "GET", "details")).isFalse();
+	}
+
+	@Test
+	void readsDoNotCountAsWrites() throws Exception {
+		ReplicaRoutingInterceptor interceptor = new ReplicaRoutingInterceptor(guard());
+		authenticate("user-3");
+
+		pinned(interceptor, "GET", "report");
+		pinned(interceptor, "POST", "search");
+
+		assertThat(pinned(interceptor, "GET", "details")).isFalse();
+	}
+
+	private static boolean pinned(ReplicaRoutingInterceptor interceptor, String method, String handler)
+			throws NoSuchMethodException {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/albums");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handlerMethod = new HandlerMethod(new Handlers(), Handlers.class.getMethod(handler));
+
+		interceptor.preHandle(request, response, handlerMethod);
+		boolean pinned = ReplicaRoutingContext.isPrimaryPinned();
+		interceptor.afterCompletion(request, response, handlerMethod, null);
+		return pinned;
+	}
+
+	private static ReplicaLagGuard guard() {
+		return new ReplicaLagGuard(redisTemplate, listenerContainer, Duration.ofMinutes(1));
+	}
+
+	private static void authenticate(String userId) {
+		Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject(userId).build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+	}
+
+	public static class Handlers {
+
+		@Transactional(readOnly = true)
+		public void search() {
+		}
+
+		@Transactional(readOnly = true)
+		public void details() {
+		}
+
+		public void report() {
+		}
+
+		@Transactional
+		public void save() {
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.grabpic.api.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class PhotoFieldsTests {
+
+	@Test
+	void selectionLeavesOutUnrequestedFieldsWithoutSigning() {
+		PhotoFields fields = PhotoFields.parse("processed, isPublic");
+
+		PhotoResponse response = fields.toResponse("p1", () -> {
+			throw new AssertionError("view URL must not be signed");
+		}, true, false, 2, new int[8]);
+
+		assertThat(fields.needsFaces()).isFalse();
+		assertThat(fields.key()).isEqualTo("id,isPublic,processed");
+		assertThat(response).isEqualTo(new PhotoResponse("p1", null, true, false, null, null));
+	}
+
+	@Test
+	void missingOrCompleteSelectionMeansAllFields() {
+		assertThat(PhotoFields.parse(null).isAll()).isTrue();
+		assertThat(PhotoFields.parse(" ").isAll()).isTrue();
+		assertThat(PhotoFields.parse("viewUrl,isPublic,processed,faceCount,faceBoxes").isAll()).isTrue();
+	}
+
+	@Test
+	void rejectsUnknownFields() {
+		assertThatIllegalArgumentException().isThrownBy(() -> PhotoFields.parse("id,storageUrl"))
+				.withMessageContaining("storageUrl");
+	}
+}
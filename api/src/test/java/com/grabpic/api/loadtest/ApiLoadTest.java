@@ -0,0 +1,219 @@
+package com.grabpic.api.loadtest;
+
+import com.grabpic.api.service.S3StorageService;
+import com.grabpic.api.service.SlowRequestLog;
+import com.grabpic.api.service.SqsService;
+import com.grabpic.api.service.TurnstileService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.convention.TestBean;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("load")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ApiLoadTest {
+
+	private static final EmbeddedPostgres POSTGRES = startPostgres();
+	private static final RedisServer REDIS = startRedis();
+
+	@TestBean(methodName = "com.grabpic.api.loadtest.StandIns#storageService")
+	S3StorageService s3StorageService;
+
+	@TestBean(methodName = "com.grabpic.api.loadtest.StandIns#sqsService")
+	SqsService sqsService;
+
+	@TestBean(methodName = "com.grabpic.api.loadtest.StandIns#turnstileService")
+	TurnstileService turnstileService;
+
+	@TestBean(methodName = "com.grabpic.api.loadtest.StandIns#jwtDecoder")
+	JwtDecoder jwtDecoder;
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	SlowRequestLog slowRequestLog;
+
+	@Value("${loadtest.seed.photos-per-album:10000}")
+	String photosPerAlbum;
+
+	@Value("${loadtest.seed.max-faces-per-photo:4}")
+	int maxFacesPerPhoto;
+
+	@Value("${loadtest.seed.upload-albums:200}")
+	int uploadAlbums;
+
+	@Value("${loadtest.concurrency:32}")
+	int concurrency;
+
+	@Value("${loadtest.warmup:10s}")
+	Duration warmup;
+
+	@Value("${loadtest.duration:30s}")
+	Duration duration;
+
+	@Value("${loadtest.max-error-ratio:0.01}")
+	double maxErrorRatio;
+
+	@DynamicPropertySource
+	static void infrastructure(DynamicPropertyRegistry registry) {
+		String jdbcUrl = POSTGRES.getJdbcUrl("postgres", "postgres");
+		registry.add("spring.datasource.url", () -> jdbcUrl);
+		registry.add("spring.datasource.replica.url", () -> jdbcUrl);
+		registry.add("spring.data.redis.url", () -> "redis://localhost:" + REDIS.ports().get(0));
+	}
+
+	@AfterAll
+	static void stopInfrastructure() throws IOException {
+		REDIS.stop();
+		POSTGRES.close();
+	}
+
+	@Test
+	void reportsThroughputAndLatencyPerEndpoint() throws Exception {
+		SyntheticDataSeeder seeder = new SyntheticDataSeeder(jdbcTemplate);
+
+		List<SyntheticDataSeeder.SeededAlbum> guestAlbums = new ArrayList<>();
+		int[] sizes = Arrays.stream(photosPerAlbum.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+		for (int i = 0; i < sizes.length; i++) {
+			guestAlbums.add(seeder.seedAlbum("loadtest-host-" + i, sizes[i], maxFacesPerPhoto, 0.7));
+		}
+
+		List<SyntheticDataSeeder.SeededAlbum> uploadTargets = new ArrayList<>();
+		for (int i = 0; i < uploadAlbums; i++) {
+			uploadTargets.add(seeder.seedEmptyAlbum("loadtest-uploader-" + i));
+		}
+
+		List<LoadDriver.Scenario> scenarios = List.of(
+				new LoadDriver.Scenario("GET /albums", 2,
+						() -> get("/api/albums", pick(guestAlbums).hostId())),
+				new LoadDriver.Scenario("GET /albums/{id}/photos", 1, () -> {
+					SyntheticDataSeeder.SeededAlbum album = pick(guestAlbums);
+					return get("/api/albums/" + album.id() + "/photos", album.hostId());
+				}),
+				new LoadDriver.Scenario("GET guest/details", 6,
+						() -> get("/api/albums/" + pick(guestAlbums).id() + "/guest/details", null)),
+				new LoadDriver.Scenario("POST guest/search-results", 3, () -> {
+					SyntheticDataSeeder.SeededAlbum album = pick(guestAlbums);
+					String ids = album.publicPhotoIds().stream()
+							.filter(id -> ThreadLocalRandom.current().nextInt(3) == 0)
+							.map(id -> "\"" + id + "\"")
+							.collect(Collectors.joining(",", "[", "]"));
+					return post("/api/albums/" + album.id() + "/guest/search-results", null,
+							ids.equals("[]") ? "[\"" + album.publicPhotoIds().get(0) + "\"]" : ids);
+				}),
+				new LoadDriver.Scenario("POST upload-urls", 1, () -> {
+					SyntheticDataSeeder.SeededAlbum album = pick(uploadTargets);
+					return HttpRequest.newBuilder(uri("/api/albums/" + album.id() + "/upload-urls"))
+							.header("Authorization", "Bearer " + album.hostId())
+							.header("Content-Type", "application/json")
+							.header("X-Turnstile-Token", "loadtest")
+							.POST(HttpRequest.BodyPublishers.ofString("{\"fileSizes\":[2097152,2097152,2097152]}"))
+							.build();
+				}),
+				new LoadDriver.Scenario("POST /albums/{id}/photos", 1, () -> {
+					SyntheticDataSeeder.SeededAlbum album = pick(uploadTargets);
+					String key = "albums/" + album.id() + "/" + UUID.randomUUID() + ".jpg";
+					return post("/api/albums/" + album.id() + "/photos", album.hostId(),
+							"{\"photos\":[{\"storageUrl\":\"" + key + "\",\"isPublic\":true}]}");
+				})
+		);
+
+		List<LoadDriver.EndpointReport> reports = new LoadDriver(concurrency, warmup, duration).run(scenarios);
+		System.out.println(LoadDriver.format(reports));
+		slowRequestLog.slowest().stream().limit(5).forEach(slow -> System.out.printf("slow %s %s %d %dms %s%n",
+				slow.method(), slow.path(), slow.status(), slow.totalMicros() / 1_000, slow.phases()));
+
+		List<String> failing = new ArrayList<>();
+		for (LoadDriver.EndpointReport report : reports) {
+			assertTrue(report.requests() > 0, "No completed requests for " + report.name());
+			assertTrue(!report.statuses().containsKey(LoadDriver.TRANSPORT_ERROR),
+					"Transport errors for " + report.name() + ": " + report.statuses());
+			double errorRatio = (double) failures(report) / report.requests();
+			if (errorRatio > maxErrorRatio) {
+				failing.add(String.format("%s %.1f%% %s", report.name(), errorRatio * 100, report.statuses()));
+			}
+		}
+		assertTrue(failing.isEmpty(), String.format("Non-2xx responses above %.1f%%: %s",
+				maxErrorRatio * 100, failing));
+	}
+
+	private static long failures(LoadDriver.EndpointReport report) {
+		return report.statuses().entrySet().stream()
+				.filter(entry -> entry.getKey() < 200 || entry.getKey() >= 300)
+				.mapToLong(Map.Entry::getValue)
+				.sum();
+	}
+
+	private HttpRequest get(String path, String bearer) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path)).GET();
+		if (bearer != null) builder.header("Authorization", "Bearer " + bearer);
+		return builder.build();
+	}
+
+	private HttpRequest post(String path, String bearer, String json) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json));
+		if (bearer != null) builder.header("Authorization", "Bearer " + bearer);
+		return builder.build();
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private static <T> T pick(List<T> items) {
+		return items.get(ThreadLocalRandom.current().nextInt(items.size()));
+	}
+
+	private static EmbeddedPostgres startPostgres() {
+		try {
+			return EmbeddedPostgres.builder().start();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static RedisServer startRedis() {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			RedisServer server = RedisServer.newRedisServer().port(socket.getLocalPort()).build();
+			socket.close();
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.grabpic.api.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+
+record InjectedLatency(Duration s3HeadObject, Duration s3Delete, Duration sqsEnqueue, Duration turnstile) {
+
+	static InjectedLatency fromSystemProperties() {
+		return new InjectedLatency(
+				read("loadtest.latency.s3-head-object", "15ms"),
+				read("loadtest.latency.s3-delete", "20ms"),
+				read("loadtest.latency.sqs-enqueue", "0ms"),
+				read("loadtest.latency.turnstile", "120ms"));
+	}
+
+	private static Duration read(String property, String defaultValue) {
+		return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+	}
+
+	static void pause(Duration latency) {
+		if (latency.isZero()) return;
+		try {
+			Thread.sleep(latency);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.grabpic.api.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+final class LoadDriver {
+
+	static final int TRANSPORT_ERROR = -1;
+
+	record Scenario(String name, int weight, Supplier<HttpRequest> request) {}
+
+	record EndpointReport(String name, long requests, double throughputPerSecond,
+						  double p50Millis, double p99Millis, double maxMillis, Map<Integer, Long> statuses) {}
+
+	private final HttpClient client;
+	private final int concurrency;
+	private final Duration warmup;
+	private final Duration duration;
+
+	LoadDriver(int concurrency, Duration warmup, Duration duration) {
+		this.client = HttpClient.newBuilder()
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+		this.concurrency = concurrency;
+		this.warmup = warmup;
+		this.duration = duration;
+	}
+
+	List<EndpointReport> run(List<Scenario> scenarios) throws InterruptedException {
+		List<Scenario> weighted = new ArrayList<>();
+		for (Scenario scenario : scenarios) {
+			for (int i = 0; i < scenario.weight(); i++) weighted.add(scenario);
+		}
+
+		Recorder[] recorders = new Recorder[scenarios.size()];
+		for (int i = 0; i < recorders.length; i++) recorders[i] = new Recorder();
+
+		long start = System.nanoTime();
+		long measureFrom = start + warmup.toNanos();
+		long stopAt = measureFrom + duration.toNanos();
+
+		try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int w = 0; w < concurrency; w++) {
+				workers.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					while (System.nanoTime() < stopAt) {
+						Scenario scenario = weighted.get(random.nextInt(weighted.size()));
+						long sent = System.nanoTime();
+						int status;
+						try {
+							status = client.send(scenario.request().get(), HttpResponse.BodyHandlers.discarding())
+									.statusCode();
+						} catch (Exception e) {
+							status = TRANSPORT_ERROR;
+						}
+						long finished = System.nanoTime();
+						if (sent >= measureFrom && finished <= stopAt) {
+							recorders[scenarios.indexOf(scenario)].record(finished - sent, status);
+						}
+					}
+					return null;
+				});
+			}
+			workers.shutdown();
+			workers.awaitTermination(duration.plus(warmup).toSeconds() + 60, TimeUnit.SECONDS);
+		}
+
+		double seconds = duration.toNanos() / 1e9;
+		List<EndpointReport> reports = new ArrayList<>();
+		for (int i = 0; i < scenarios.size(); i++) {
+			reports.add(recorders[i].report(scenarios.get(i).name(), seconds));
+		}
+		return reports;
+	}
+
+	static String format(List<EndpointReport> reports) {
+		StringBuilder out = new StringBuilder(String.format("%n%-28s %9s %10s %9s %9s %9s  %s%n",
+				"endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "statuses"));
+		for (EndpointReport r : reports) {
+			out.append(String.format("%-28s %9d %10.1f %9.2f %9.2f %9.2f  %s%n",
+					r.name(), r.requests(), r.throughputPerSecond(), r.p50Millis(), r.p99Millis(), r.maxMillis(),
+					r.statuses()));
+		}
+		return out.toString();
+	}
+
+	private static final class Recorder {
+
+		private long[] latencies = new long[1024];
+		private int count;
+		private final Map<Integer, Long> statuses = new TreeMap<>();
+
+		synchronized void record(long latencyNanos, int status) {
+			if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+			latencies[count++] = latencyNanos;
+			statuses.merge(status, 1L, Long::sum);
+		}
+
+		synchronized EndpointReport report(String name, double seconds) {
+			long[] sorted = Arrays.copyOf(latencies, count);
+			Arrays.sort(sorted);
+			return new EndpointReport(name, count, count / seconds,
+					percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+					count == 0 ? 0 : sorted[count - 1] / 1e6, new TreeMap<>(statuses));
+		}
+
+		private static double percentileMillis(long[] sorted, double percentile) {
+			if (sorted.length == 0) return 0;
+			int index = (int) Math.ceil(percentile * sorted.length) - 1;
+			return sorted[Math.max(0, index)] / 1e6;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.grabpic.api.loadtest;
+
+import com.grabpic.api.config.DependencyGuards;
+import com.grabpic.api.service.S3StorageService;
+import com.grabpic.api.service.SqsService;
+import com.grabpic.api.service.TurnstileService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class StandIns {
+
+	static final InjectedLatency LATENCY = InjectedLatency.fromSystemProperties();
+	static final long OBJECT_SIZE_BYTES = 2L * 1024 * 1024;
+	static final AtomicLong ENQUEUED_PHOTOS = new AtomicLong();
+
+	private StandIns() {
+	}
+
+	static S3StorageService storageService() {
+		System.setProperty("aws.accessKeyId", "AKIALOADTEST");
+		System.setProperty("aws.secretAccessKey", "loadtest-secret");
+		return new StandInStorageService();
+	}
+
+	static SqsService sqsService() {
+		return new StandInSqsService();
+	}
+
+	static TurnstileService turnstileService() {
+		return new StandInTurnstileService();
+	}
+
+	static JwtDecoder jwtDecoder() {
+		return token -> {
+			Instant now = Instant.now();
+			return Jwt.withTokenValue(token)
+					.header("alg", "none")
+					.subject(token)
+					.issuedAt(now)
+					.expiresAt(now.plusSeconds(3600))
+					.build();
+		};
+	}
+
+	static class StandInStorageService extends S3StorageService {
+
+		StandInStorageService() {
+			super("us-east-1", "grabpic-loadtest", "http://localhost:3000", "", "", "",
+					50, Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(10),
+					new DependencyGuards(new StandardEnvironment()), new SimpleMeterRegistry());
+		}
+
+		@Override
+		public boolean ensureLifecycleRules() {
+			return true;
+		}
+
+		@Override
+		public Optional<UploadedObject> describeUpload(String s3Key) {
+			InjectedLatency.pause(LATENCY.s3HeadObject());
+			return Optional.of(new UploadedObject(OBJECT_SIZE_BYTES, Map.of(), null));
+		}
+
+		@Override
+		public void putGuestManifest(String s3Key, byte[] body, String cacheControl) {
+		}
+
+		@Override
+		public void deleteObject(String s3Key) {
+			InjectedLatency.pause(LATENCY.s3Delete());
+		}
+
+		@Override
+		public void deleteObjects(List<String> s3Keys) {
+			InjectedLatency.pause(LATENCY.s3Delete());
+		}
+	}
+
+	static class StandInSqsService extends SqsService {
+
+		StandInSqsService() {
+			super(null, null, new SimpleMeterRegistry());
+		}
+
+		@Override
+		public void sendPhotosForProcessingBatch(List<PhotoMessage> messages) {
+			if (messages == null || messages.isEmpty()) return;
+			InjectedLatency.pause(LATENCY.sqsEnqueue());
+			ENQUEUED_PHOTOS.addAndGet(messages.size());
+		}
+	}
+
+	static class StandInTurnstileService extends TurnstileService {
+
+		StandInTurnstileService() {
+			super(Duration.ofSeconds(2), Duration.ofSeconds(3), new DependencyGuards(new StandardEnvironment()));
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return true;
+		}
+
+		@Override
+		public boolean isHuman(String token, String remoteIp) {
+			InjectedLatency.pause(LATENCY.turnstile());
+			return token != null && !token.isEmpty();
+		}
+	}
+}
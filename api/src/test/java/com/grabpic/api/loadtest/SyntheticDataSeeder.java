@@ -0,0 +1,55 @@
+package com.grabpic.api.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+final class SyntheticDataSeeder {
+
+	record SeededAlbum(UUID id, String hostId, List<UUID> publicPhotoIds) {}
+
+	private final JdbcTemplate jdbcTemplate;
+
+	SyntheticDataSeeder(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	SeededAlbum seedAlbum(String hostId, int photoCount, int maxFacesPerPhoto, double publicRatio) {
+		UUID albumId = createAlbum(hostId, "Load test album (" + photoCount + " photos)");
+
+		jdbcTemplate.update("""
+				INSERT INTO photos (id, album_id, storage_url, access_mode, processed)
+				SELECT gen_random_uuid(), ?, 'albums/' || ? || '/' || gen_random_uuid() || '.jpg',
+				       CASE WHEN random() < ? THEN 'PUBLIC' ELSE 'PROTECTED' END, true
+				FROM generate_series(1, ?)
+				""", albumId, albumId.toString(), publicRatio, photoCount);
+
+		if (maxFacesPerPhoto > 0) {
+			jdbcTemplate.update("""
+					INSERT INTO photo_embeddings (id, photo_id, box_area)
+					SELECT gen_random_uuid(), p.id,
+					       ARRAY[(random() * 3000)::int, (random() * 2000)::int,
+					             80 + (random() * 400)::int, 80 + (random() * 400)::int]
+					FROM photos p
+					CROSS JOIN LATERAL generate_series(1, abs(hashtext(p.id::text)) % (? + 1))
+					WHERE p.album_id = ?
+					""", maxFacesPerPhoto, albumId);
+		}
+
+		List<UUID> publicPhotoIds = jdbcTemplate.queryForList(
+				"SELECT id FROM photos WHERE album_id = ? AND access_mode = 'PUBLIC' LIMIT 50", UUID.class, albumId);
+		return new SeededAlbum(albumId, hostId, publicPhotoIds);
+	}
+
+	SeededAlbum seedEmptyAlbum(String hostId) {
+		return new SeededAlbum(createAlbum(hostId, "Load test upload album"), hostId, List.of());
+	}
+
+	private UUID createAlbum(String hostId, String title) {
+		UUID albumId = UUID.randomUUID();
+		jdbcTemplate.update("INSERT INTO shared_albums (id, title, host_id, created_at) VALUES (?, ?, ?, now())",
+				albumId, title, hostId);
+		return albumId;
+	}
+}
@@ -0,0 +1,233 @@
+package com.grabpic.api.repository;
+
+import com.grabpic.api.model.AccessMode;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhotoBulkRepositoryTests {
+
+	private static EmbeddedPostgres postgres;
+	private static JdbcTemplate jdbc;
+	private static PhotoBulkRepository repository;
+
+	@BeforeAll
+	static void migrate() throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+		jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+		repository = new PhotoBulkRepository(jdbc);
+	}
+
+	@AfterAll
+	static void stop() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void deletesOnlyPhotosInTheGivenAlbum() {
+		UUID album = album("host-a");
+		UUID otherAlbum = album("host-b");
+		UUID first = photo(album, "albums/a/1.jpg");
+		UUID second = photo(album, "albums/a/2.jpg");
+		UUID kept = photo(album, "albums/a/3.jpg");
+		UUID foreign = photo(otherAlbum, "albums/b/1.jpg");
+
+		List<String> deletedKeys = repository.deleteFromAlbum(album, List.of(first, second, foreign, UUID.randomUUID()));
+
+		assertThat(deletedKeys).containsExactlyInAnyOrder("albums/a/1.jpg", "albums/a/2.jpg");
+		assertThat(jdbc.queryForList("SELECT id FROM photos WHERE album_id IN (?, ?)", UUID.class, album, otherAlbum))
+				.containsExactlyInAnyOrder(kept, foreign);
+		assertThat(jdbc.queryForList("SELECT photo_id FROM photo_embeddings WHERE photo_id IN (?, ?, ?, ?)",
+				UUID.class, first, second, kept, foreign))
+				.containsExactlyInAnyOrder(kept, foreign);
+	}
+
+	@Test
+	void updatesAndReturnsOnlyPhotosWhoseModeChanges() {
+		UUID album = album("host-c");
+		UUID alreadyProtected = photo(album, "albums/c/1.jpg", "PROTECTED", false);
+		UUID unprocessed = photo(album, "albums/c/2.jpg", "PUBLIC", false);
+		UUID processed = photo(album, "albums/c/3.jpg", "PUBLIC", true);
+		UUID foreign = photo(album("host-d"), "albums/d/1.jpg", "PUBLIC", false);
+
+		List<PhotoBulkRepository.ChangedPhoto> changed = repository.updateAccessMode(album,
+				List.of(alreadyProtected, unprocessed, processed, foreign), AccessMode.PROTECTED);
+
+		assertThat(changed).containsExactlyInAnyOrder(
+				new PhotoBulkRepository.ChangedPhoto(unprocessed, "albums/c/2.jpg", false),
+				new PhotoBulkRepository.ChangedPhoto(processed, "albums/c/3.jpg", true));
+		assertThat(jdbc.queryForObject("SELECT access_mode FROM photos WHERE id = ?", String.class, foreign))
+				.isEqualTo("PUBLIC");
+	}
+
+	@Test
+	void listsOnlyRequestedPhotosOfTheAlbum() {
+		UUID album = album("host-l");
+		UUID listed = photo(album, "albums/l/1.jpg", "PROTECTED", false);
+		UUID other = photo(album, "albums/l/2.jpg", "PUBLIC", true);
+		UUID foreign = photo(album("host-m"), "albums/m/1.jpg");
+
+		assertThat(repository.listPhotos(album)).containsExactlyInAnyOrder(
+				new PhotoBulkRepository.ListedPhoto(listed, "albums/l/1.jpg", AccessMode.PROTECTED, false),
+				new PhotoBulkRepository.ListedPhoto(other, "albums/l/2.jpg", AccessMode.PUBLIC, true));
+		assertThat(repository.listPhotos(album, List.of(listed, foreign)))
+				.extracting(PhotoBulkRepository.ListedPhoto::id)
+				.containsExactly(listed);
+	}
+
+	@Test
+	void listsPhotosWithTheirFaceBoxes() {
+		UUID album = album("host-n");
+		UUID withFaces = photo(album, "albums/n/1.jpg");
+		jdbc.update("UPDATE photo_embeddings SET box_area = '{1, 2, 3, 4}' WHERE photo_id = ?", withFaces);
+		jdbc.update("INSERT INTO photo_embeddings (id, photo_id) VALUES ('ffffffff-0000-0000-0000-000000000000', ?)",
+				withFaces);
+		UUID withoutFaces = jdbc.queryForObject("""
+				INSERT INTO photos (album_id, storage_url, access_mode, processed)
+				VALUES (?, 'albums/n/2.jpg', 'PROTECTED', false) RETURNING id
+				""", UUID.class, album);
+
+		assertThat(repository.listPhotosWithFaces(album)).satisfiesExactlyInAnyOrder(
+				photo -> {
+					assertThat(photo.photo()).isEqualTo(
+							new PhotoBulkRepository.ListedPhoto(withFaces, "albums/n/1.jpg", AccessMode.PUBLIC, true));
+					assertThat(photo.faceCount()).isEqualTo(2);
+					assertThat(photo.faceBoxes()).containsExactly(1, 2, 3, 4, 0, 0, 0, 0);
+				},
+				photo -> {
+					assertThat(photo.photo().id()).isEqualTo(withoutFaces);
+					assertThat(photo.faceCount()).isZero();
+					assertThat(photo.faceBoxes()).isEmpty();
+				});
+	}
+
+	@Test
+	void insertsEachStorageKeyOnceAndIgnoresMissingAlbums() {
+		UUID album = album("host-e");
+		List<PhotoBulkRepository.NewPhoto> photos = List.of(
+				new PhotoBulkRepository.NewPhoto("albums/e/1.jpg", AccessMode.PUBLIC, null),
+				new PhotoBulkRepository.NewPhoto("albums/e/2.jpg", AccessMode.PROTECTED, null));
+
+		assertThat(repository.insertIfAbsent(album, photos).inserted())
+				.extracting(PhotoBulkRepository.ChangedPhoto::storageUrl)
+				.containsExactlyInAnyOrder("albums/e/1.jpg", "albums/e/2.jpg");
+		assertThat(repository.insertIfAbsent(album, photos).inserted()).isEmpty();
+		assertThat(repository.insertIfAbsent(UUID.randomUUID(),
+				List.of(new PhotoBulkRepository.NewPhoto("albums/x/1.jpg", AccessMode.PUBLIC, null))).inserted()).isEmpty();
+		assertThat(jdbc.queryForList("SELECT access_mode FROM photos WHERE album_id = ? ORDER BY storage_url",
+				String.class, album)).containsExactly("PUBLIC", "PROTECTED");
+	}
+
+	@Test
+	void reusesAProcessedPhotoOfTheSameHostWithTheSameContentHash() {
+		String hash = "n4bQgYhMfWWaL+qgxVrQFaO/TxsrC4Is0V1sFbDwCgg=";
+		UUID firstAlbum = album("host-f");
+		UUID secondAlbum = album("host-f");
+		UUID otherHost = album("host-g");
+		UUID original = photo(firstAlbum, "albums/f/1.jpg", "PUBLIC", true);
+		jdbc.update("UPDATE photos SET content_hash = ? WHERE id = ?", hash, original);
+		jdbc.update("UPDATE photo_embeddings SET box_area = '{1, 2, 3, 4}' WHERE photo_id = ?", original);
+
+		PhotoBulkRepository.InsertResult reused = repository.insertIfAbsent(secondAlbum,
+				List.of(new PhotoBulkRepository.NewPhoto("albums/f2/1.jpg", AccessMode.PROTECTED, hash)));
+		PhotoBulkRepository.InsertResult separate = repository.insertIfAbsent(otherHost,
+				List.of(new PhotoBulkRepository.NewPhoto("albums/g/1.jpg", AccessMode.PROTECTED, hash)));
+
+		assertThat(reused.inserted()).singleElement().satisfies(photo -> {
+			assertThat(photo.storageUrl()).isEqualTo("albums/f/1.jpg");
+			assertThat(photo.processed()).isTrue();
+			assertThat(jdbc.queryForList("SELECT box_area::text FROM photo_embeddings WHERE photo_id = ?",
+					String.class, photo.id())).containsExactly("{1,2,3,4}");
+		});
+		assertThat(reused.supersededUploads()).containsExactly("albums/f2/1.jpg");
+		assertThat(separate.inserted()).singleElement().satisfies(photo -> {
+			assertThat(photo.storageUrl()).isEqualTo("albums/g/1.jpg");
+			assertThat(photo.processed()).isFalse();
+		});
+		assertThat(separate.supersededUploads()).isEmpty();
+
+		repository.deleteFromAlbum(firstAlbum, List.of(original));
+		assertThat(repository.unreferenced(List.of("albums/f/1.jpg", "albums/f2/1.jpg")))
+				.containsExactly("albums/f2/1.jpg");
+	}
+
+	@Test
+	void archivesAndRehydratesAnAlbumWithItsFaces() {
+		UUID album = album("host-h");
+		UUID photo = photo(album, "albums/h/1.jpg");
+		UUID unprocessed = photo(album, "albums/h/2.jpg", "PROTECTED", false);
+
+		assertThat(repository.archiveAlbum(album)).hasValueSatisfying(moved -> {
+			assertThat(moved.version()).isEqualTo(1);
+			assertThat(moved.storageUrls()).containsExactlyInAnyOrder("albums/h/1.jpg", "albums/h/2.jpg");
+		});
+		assertThat(repository.archiveAlbum(album)).isEmpty();
+
+		assertThat(jdbc.queryForList("SELECT id FROM photos WHERE album_id = ?", UUID.class, album)).isEmpty();
+		assertThat(jdbc.queryForList("SELECT photo_id FROM archived_photo_embeddings WHERE photo_id IN (?, ?)",
+				UUID.class, photo, unprocessed)).containsExactlyInAnyOrder(photo, unprocessed);
+		assertThat(repository.countArchivedByHostId("host-h")).isEqualTo(2);
+		assertThat(repository.unreferenced(List.of("albums/h/1.jpg"))).isEmpty();
+		assertThat(repository.archivedOnly(List.of("albums/h/1.jpg"))).containsExactly("albums/h/1.jpg");
+
+		assertThat(repository.rehydrateAlbum(album)).hasValueSatisfying(moved -> {
+			assertThat(moved.version()).isEqualTo(2);
+			assertThat(moved.storageUrls()).containsExactlyInAnyOrder("albums/h/1.jpg", "albums/h/2.jpg");
+		});
+		assertThat(repository.rehydrateAlbum(album)).isEmpty();
+
+		assertThat(jdbc.queryForList("SELECT photo_id FROM photo_embeddings WHERE photo_id IN (?, ?)",
+				UUID.class, photo, unprocessed)).containsExactlyInAnyOrder(photo, unprocessed);
+		assertThat(jdbc.queryForObject("SELECT processed FROM photos WHERE id = ?", Boolean.class, unprocessed))
+				.isFalse();
+		assertThat(repository.countArchivedByHostId("host-h")).isZero();
+		assertThat(jdbc.queryForObject("SELECT archived_at IS NULL FROM shared_albums WHERE id = ?", Boolean.class,
+				album)).isTrue();
+	}
+
+	@Test
+	void rehydrationKeepsArchivedPhotosThatWereRegisteredAgainWhileArchived() {
+		UUID album = album("host-r");
+		UUID archived = photo(album, "albums/r/1.jpg");
+		repository.archiveAlbum(album);
+		UUID reRegistered = photo(album, "albums/r/1.jpg", "PUBLIC", false);
+
+		assertThat(repository.rehydrateAlbum(album)).map(PhotoBulkRepository.MovedAlbum::storageUrls)
+				.contains(List.of("albums/r/1.jpg"));
+
+		assertThat(jdbc.queryForList("SELECT id FROM photos WHERE album_id = ?", UUID.class, album))
+				.containsExactly(archived);
+		assertThat(jdbc.queryForList("SELECT photo_id FROM photo_embeddings WHERE photo_id IN (?, ?)",
+				UUID.class, archived, reRegistered)).containsExactly(archived);
+		assertThat(repository.countArchivedByHostId("host-r")).isZero();
+	}
+
+	private static UUID album(String hostId) {
+		return jdbc.queryForObject(
+				"INSERT INTO shared_albums (title, host_id, created_at) VALUES ('Album', ?, now()) RETURNING id",
+				UUID.class, hostId);
+	}
+
+	private static UUID photo(UUID albumId, String storageUrl) {
+		return photo(albumId, storageUrl, "PUBLIC", true);
+	}
+
+	private static UUID photo(UUID albumId, String storageUrl, String accessMode, boolean processed) {
+		UUID photoId = jdbc.queryForObject("""
+				INSERT INTO photos (album_id, storage_url, access_mode, processed)
+				VALUES (?, ?, ?, ?) RETURNING id
+				""", UUID.class, albumId, storageUrl, accessMode, processed);
+		jdbc.update("INSERT INTO photo_embeddings (photo_id) VALUES (?)", photoId);
+		return photoId;
+	}
+}
@@ -0,0 +1,149 @@
+package com.grabpic.api.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemaMigrationTests {
+
+	private static EmbeddedPostgres postgres;
+	private static JdbcTemplate jdbc;
+	private static UUID albumId;
+
+	@BeforeAll
+	static void migrateAndSeed() throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		Flyway.configure()
+				.dataSource(postgres.getPostgresDatabase())
+				.load()
+				.migrate();
+
+		jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+		jdbc.update("""
+				INSERT INTO shared_albums (title, host_id, created_at)
+				SELECT 'Album ' || i, 'host-' || (i % 1000), now()
+				FROM generate_series(1, 2000) AS i
+				""");
+		jdbc.update("""
+				INSERT INTO photos (album_id, storage_url, access_mode, processed)
+				SELECT a.id, 'albums/' || a.id || '/' || i || '.jpg',
+				       CASE WHEN i % 3 = 0 THEN 'PUBLIC' ELSE 'PROTECTED' END, i % 50 <> 0
+				FROM shared_albums a CROSS JOIN generate_series(1, 25) AS i
+				""");
+		jdbc.update("""
+				INSERT INTO photo_embeddings (photo_id, box_area)
+				SELECT id, ARRAY[1, 2, 3, 4] FROM photos
+				""");
+		jdbc.execute("VACUUM ANALYZE");
+
+		albumId = jdbc.queryForObject("SELECT id FROM shared_albums WHERE host_id = 'host-42' LIMIT 1", UUID.class);
+	}
+
+	@AfterAll
+	static void stop() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void albumListUsesCoveringHostIndex() {
+		assertThat(explain("SELECT id, created_at, host_id, title FROM shared_albums WHERE host_id = 'host-42'"))
+				.contains("Index Only Scan using idx_shared_albums_host_id");
+	}
+
+	@Test
+	void albumPhotosUseAlbumIndex() {
+		assertThat(explain("SELECT * FROM photos WHERE album_id = '" + albumId + "'"))
+				.contains("idx_photos_album_id");
+		assertThat(explain("SELECT count(*) FROM photos WHERE album_id = '" + albumId + "'"))
+				.contains("idx_photos_album_id");
+	}
+
+	@Test
+	void backfillUsesPartialUnprocessedIndex() {
+		assertThat(explain("SELECT * FROM photos WHERE album_id = '" + albumId + "' AND processed = false"))
+				.contains("idx_photos_album_id_unprocessed");
+	}
+
+	@Test
+	void faceLoadingUsesPhotoIndex() {
+		UUID photoId = jdbc.queryForObject("SELECT id FROM photos WHERE album_id = ? LIMIT 1", UUID.class, albumId);
+		assertThat(explain("SELECT * FROM photo_embeddings WHERE photo_id = '" + photoId + "'"))
+				.contains("idx_photo_embeddings_photo_id");
+	}
+
+	@Test
+	void hostPhotoCountAvoidsSequentialScans() {
+		assertThat(explain("""
+				SELECT count(p.id) FROM photos p JOIN shared_albums a ON a.id = p.album_id
+				WHERE a.host_id = 'host-42'
+				"""))
+				.contains("idx_shared_albums_host_id")
+				.contains("idx_photos_album_id")
+				.doesNotContain("Seq Scan");
+	}
+
+	@Test
+	void duplicateRegistrationsAreMergedBeforeTheUniqueIndex() throws IOException {
+		try (EmbeddedPostgres older = EmbeddedPostgres.builder().start()) {
+			Flyway.configure().dataSource(older.getPostgresDatabase()).target("2").load().migrate();
+			JdbcTemplate db = new JdbcTemplate(older.getPostgresDatabase());
+			UUID album = db.queryForObject(
+					"INSERT INTO shared_albums (title, host_id) VALUES ('Album', 'host-1') RETURNING id", UUID.class);
+			UUID pending = photo(db, album, "albums/x/1.jpg", false, false);
+			UUID processed = photo(db, album, "albums/x/1.jpg", true, true);
+			UUID withFaces = photo(db, album, "albums/x/2.jpg", false, true);
+			UUID withoutFaces = photo(db, album, "albums/x/2.jpg", false, false);
+			UUID otherAlbum = db.queryForObject(
+					"INSERT INTO shared_albums (title, host_id) VALUES ('Album', 'host-1') RETURNING id", UUID.class);
+			UUID shared = photo(db, otherAlbum, "albums/x/1.jpg", true, true);
+
+			Flyway.configure().dataSource(older.getPostgresDatabase()).load().migrate();
+
+			assertThat(db.queryForList("SELECT id FROM photos", UUID.class))
+					.containsExactlyInAnyOrder(processed, withFaces, shared)
+					.doesNotContain(pending, withoutFaces);
+			assertThat(db.queryForList("SELECT photo_id FROM photo_embeddings", UUID.class))
+					.containsExactlyInAnyOrder(processed, withFaces, shared);
+		}
+	}
+
+	@Test
+	void faceBoxesAreConvertedToArrays() throws IOException {
+		try (EmbeddedPostgres older = EmbeddedPostgres.builder().start()) {
+			Flyway.configure().dataSource(older.getPostgresDatabase()).target("7").load().migrate();
+			JdbcTemplate db = new JdbcTemplate(older.getPostgresDatabase());
+			UUID album = db.queryForObject(
+					"INSERT INTO shared_albums (title, host_id) VALUES ('Album', 'host-1') RETURNING id", UUID.class);
+			UUID photo = photo(db, album, "albums/x/1.jpg", true, false);
+			db.update("INSERT INTO photo_embeddings (photo_id, box_area) VALUES (?, '{\"x\":1,\"y\":2,\"w\":3,\"h\":4}')",
+					photo);
+			db.update("INSERT INTO photo_embeddings (photo_id, box_area) VALUES (?, '[5, 6, 7, 8]')", photo);
+			db.update("INSERT INTO photo_embeddings (photo_id) VALUES (?)", photo);
+
+			Flyway.configure().dataSource(older.getPostgresDatabase()).load().migrate();
+
+			assertThat(db.queryForList("SELECT box_area::text FROM photo_embeddings", String.class))
+					.containsExactlyInAnyOrder("{1,2,3,4}", "{5,6,7,8}", null);
+		}
+	}
+
+	private static UUID photo(JdbcTemplate db, UUID album, String storageUrl, boolean processed, boolean faces) {
+		UUID id = db.queryForObject(
+				"INSERT INTO photos (album_id, storage_url, access_mode, processed) VALUES (?, ?, 'PUBLIC', ?) RETURNING id",
+				UUID.class, album, storageUrl, processed);
+		if (faces) db.update("INSERT INTO photo_embeddings (photo_id) VALUES (?)", id);
+		return id;
+	}
+
+	private static String explain(String sql) {
+		return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+	}
+}
@@ -0,0 +1,189 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.ReplicaRoutingContext;
+import com.grabpic.api.dto.AlbumSummary;
+import com.grabpic.api.repository.SharedAlbumRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlbumAccessCacheTests {
+
+	private static RedisServer redis;
+	private static LettuceConnectionFactory connectionFactory;
+	private static StringRedisTemplate redisTemplate;
+	private static RedisMessageListenerContainer listenerContainer;
+
+	private final Map<UUID, AlbumSummary> albums = new ConcurrentHashMap<>();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@BeforeAll
+	static void startRedis() throws IOException {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		redis = RedisServer.newRedisServer().port(port).build();
+		redis.start();
+
+		connectionFactory = new LettuceConnectionFactory("localhost", port);
+		connectionFactory.afterPropertiesSet();
+		connectionFactory.start();
+		redisTemplate = new StringRedisTemplate(connectionFactory);
+		listenerContainer = new RedisMessageListenerContainer();
+		listenerContainer.setConnectionFactory(connectionFactory);
+		listenerContainer.afterPropertiesSet();
+		listenerContainer.start();
+	}
+
+	@AfterAll
+	static void stopRedis() throws IOException {
+		listenerContainer.stop();
+		connectionFactory.destroy();
+		redis.stop();
+	}
+
+	@BeforeEach
+	void flush() {
+		redisTemplate.execute(connection -> {
+			connection.serverCommands().flushAll();
+			return null;
+		}, true);
+	}
+
+	@AfterEach
+	void unpin() {
+		ReplicaRoutingContext.clear();
+	}
+
+	@Test
+	void fillThatReadAnOlderVersionIsServedButNotCached() {
+		AlbumAccessCache cache = cache(100);
+		UUID id = UUID.randomUUID();
+		albums.put(id, summary(id, false, 0));
+		assertThat(cache.find(id)).contains(summary(id, false, 0));
+
+		cache.evict(id, 1);
+
+		assertThat(cache.find(id)).contains(summary(id, false, 0));
+		assertThat(cache.find(id)).contains(summary(id, false, 0));
+		assertThat(loads).hasValue(3);
+
+		albums.put(id, summary(id, true, 1));
+		assertThat(cache.find(id)).contains(summary(id, true, 1));
+		assertThat(cache.find(id)).contains(summary(id, true, 1));
+		assertThat(loads).hasValue(4);
+		assertThat(redisTemplate.opsForHash().get("album:" + id, "archived")).isEqualTo("true");
+	}
+
+	@Test
+	void deletedAlbumIsNeverCachedAgain() {
+		AlbumAccessCache cache = cache(100);
+		UUID id = UUID.randomUUID();
+		albums.put(id, summary(id, false, 3));
+		cache.find(id);
+
+		cache.evict(id);
+		cache.find(id);
+		cache.find(id);
+
+		assertThat(loads).hasValue(3);
+		assertThat(redisTemplate.opsForHash().hasKey("album:" + id, "hostId")).isFalse();
+	}
+
+	@Test
+	void evictionReachesOtherInstances() throws InterruptedException {
+		AlbumAccessCache writer = cache(100);
+		AlbumAccessCache reader = cache(100);
+		UUID id = UUID.randomUUID();
+		albums.put(id, summary(id, false, 0));
+		reader.find(id);
+
+		albums.put(id, summary(id, true, 1));
+		writer.evict(id, 1);
+
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (reader.find(id).map(AlbumSummary::archived).orElse(false) != Boolean.TRUE
+				&& System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(reader.find(id)).contains(summary(id, true, 1));
+	}
+
+	@Test
+	void settlingAlbumPinsLookupsToThePrimaryOnEveryInstance() throws InterruptedException {
+		AlbumAccessCache writer = cache(100);
+		AlbumAccessCache reader = cache(100);
+		UUID id = UUID.randomUUID();
+		albums.put(id, summary(id, true, 1));
+		reader.find(id);
+		assertThat(ReplicaRoutingContext.isPrimaryPinned()).isFalse();
+
+		albums.put(id, summary(id, false, 2));
+		writer.evict(id, 2);
+
+		writer.find(id);
+		assertThat(ReplicaRoutingContext.isPrimaryPinned()).isTrue();
+
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (reader.find(id).map(AlbumSummary::version).orElse(0L) != 2 && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		ReplicaRoutingContext.clear();
+		reader.find(id);
+		assertThat(ReplicaRoutingContext.isPrimaryPinned()).isTrue();
+	}
+
+	@Test
+	void fullNearCacheDropsOnlyAFewEntries() {
+		AlbumAccessCache cache = cache(100);
+		for (int i = 0; i <= 100; i++) {
+			UUID id = UUID.randomUUID();
+			albums.put(id, summary(id, false, 0));
+			cache.find(id);
+		}
+		flush();
+		loads.set(0);
+
+		albums.keySet().forEach(cache::find);
+
+		assertThat(loads.get()).isLessThan(albums.size() / 4);
+	}
+
+	private AlbumAccessCache cache(int nearCacheMaxEntries) {
+		return new AlbumAccessCache(repository(), redisTemplate, listenerContainer,
+				Duration.ofMinutes(1), Duration.ofHours(1), nearCacheMaxEntries, Duration.ofMinutes(1));
+	}
+
+	private SharedAlbumRepository repository() {
+		return (SharedAlbumRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] {SharedAlbumRepository.class}, (proxy, method, args) -> {
+					if (!method.getName().equals("findSummaryById")) throw new UnsupportedOperationException();
+					loads.incrementAndGet();
+					return Optional.ofNullable(albums.get((UUID) args[0]));
+				});
+	}
+
+	private static AlbumSummary summary(UUID id, boolean archived, long version) {
+		return new AlbumSummary(id, "host-1", "Album", archived, version);
+	}
+}
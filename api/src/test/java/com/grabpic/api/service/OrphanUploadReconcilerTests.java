@@ -0,0 +1,88 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.DependencyGuards;
+import com.grabpic.api.repository.PhotoBulkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrphanUploadReconcilerTests {
+
+	private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+	private static final String ALBUM = "albums/" + UUID.randomUUID() + "/";
+
+	private final FakeStorage storage = new FakeStorage();
+	private final FakePhotos photos = new FakePhotos();
+	private final OrphanUploadReconciler reconciler = new OrphanUploadReconciler(storage, photos, null,
+			new SimpleMeterRegistry(), false, Duration.ofHours(6), Duration.ofHours(24), Duration.ofHours(1));
+
+	@Test
+	void deletesOnlyOldUploadsThatNoPhotoReferences() {
+		String orphan = ALBUM + UUID.randomUUID() + ".jpg";
+		String registered = ALBUM + UUID.randomUUID() + ".jpg";
+		String inFlight = ALBUM + UUID.randomUUID() + ".jpg";
+		String manifest = ALBUM + "manifests/1.json";
+		photos.registered.add(registered);
+		storage.pages.add(List.of(
+				new S3StorageService.StoredObject(orphan, NOW.minus(Duration.ofDays(3))),
+				new S3StorageService.StoredObject(registered, NOW.minus(Duration.ofDays(3)))));
+		storage.pages.add(List.of(
+				new S3StorageService.StoredObject(inFlight, NOW.minus(Duration.ofHours(1))),
+				new S3StorageService.StoredObject(manifest, NOW.minus(Duration.ofDays(3)))));
+
+		assertThat(reconciler.reconcile(NOW)).isEqualTo(1);
+
+		assertThat(storage.deleted).containsExactly(orphan);
+		assertThat(photos.lookups).containsExactly(List.of(orphan, registered));
+	}
+
+	private static class FakeStorage extends S3StorageService {
+
+		private final List<List<StoredObject>> pages = new ArrayList<>();
+		private final List<String> deleted = new ArrayList<>();
+
+		FakeStorage() {
+			super("us-east-1", "grabpic-test", "http://localhost:3000", "", "", "",
+					1, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1),
+					new DependencyGuards(new StandardEnvironment()), new SimpleMeterRegistry());
+		}
+
+		@Override
+		public void forEachObjectPage(String prefix, Consumer<List<StoredObject>> pageConsumer) {
+			pages.forEach(pageConsumer);
+		}
+
+		@Override
+		public void deleteObjects(List<String> s3Keys) {
+			deleted.addAll(s3Keys);
+		}
+	}
+
+	private static class FakePhotos extends PhotoBulkRepository {
+
+		private final Set<String> registered = new HashSet<>();
+		private final List<List<String>> lookups = new ArrayList<>();
+
+		FakePhotos() {
+			super(null);
+		}
+
+		@Override
+		public List<String> unreferenced(Collection<String> storageUrls) {
+			lookups.add(List.copyOf(storageUrls));
+			return storageUrls.stream().filter(key -> !registered.contains(key)).toList();
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.grabpic.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PhotoMessageCodecTests {
+
+	private static final String PHOTO_ID = "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b";
+	private static final String STORAGE_URL =
+			"albums/0e1d2c3b-4a59-6877-8695-a4b3c2d1e0f9/3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b.jpg";
+
+	private final PhotoMessageCodec codec = new PhotoMessageCodec(10, 256 * 1024);
+
+	@Test
+	void encodesVersionedEnvelope() {
+		List<String> bodies = codec.encode(List.of(new SqsService.PhotoMessage(PHOTO_ID, STORAGE_URL)));
+
+		assertThat(bodies).containsExactly(
+				"{\"version\":2,\"photos\":[{\"photoId\":\"" + PHOTO_ID + "\",\"storageUrl\":\"" + STORAGE_URL + "\"}]}");
+	}
+
+	@Test
+	void roundTripsBatches() {
+		List<SqsService.PhotoMessage> photos = photos(7);
+
+		List<String> bodies = codec.encode(photos);
+
+		assertThat(bodies).hasSize(1);
+		assertThat(codec.decode(bodies.get(0))).isEqualTo(photos);
+	}
+
+	@Test
+	void splitsByPhotoCount() {
+		List<SqsService.PhotoMessage> photos = photos(25);
+
+		List<String> bodies = codec.encode(photos);
+
+		assertThat(bodies).hasSize(3);
+		assertThat(bodies.stream().flatMap(b -> codec.decode(b).stream()).toList()).isEqualTo(photos);
+	}
+
+	@Test
+	void splitsBySizeLimit() {
+		PhotoMessageCodec smallCodec = new PhotoMessageCodec(1000, 1024);
+		List<SqsService.PhotoMessage> photos = photos(40);
+
+		List<String> bodies = smallCodec.encode(photos);
+
+		assertThat(bodies).hasSizeGreaterThan(1);
+		assertThat(bodies).allSatisfy(b ->
+				assertThat(b.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(1024));
+		assertThat(bodies.stream().flatMap(b -> smallCodec.decode(b).stream()).toList()).isEqualTo(photos);
+	}
+
+	@Test
+	void decodesLegacySinglePhotoMessages() {
+		String legacy = String.format("{\"photoId\": \"%s\", \"storageUrl\": \"%s\"}", PHOTO_ID, STORAGE_URL);
+
+		assertThat(codec.decode(legacy)).containsExactly(new SqsService.PhotoMessage(PHOTO_ID, STORAGE_URL));
+	}
+
+	@Test
+	void rejectsUnknownVersions() {
+		assertThatThrownBy(() -> codec.decode("{\"version\":3,\"photos\":[]}"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void encodesNothingForEmptyInput() {
+		assertThat(codec.encode(List.of())).isEmpty();
+	}
+
+	private static List<SqsService.PhotoMessage> photos(int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> new SqsService.PhotoMessage(
+						PHOTO_ID.substring(0, 24) + String.format("%012d", i),
+						STORAGE_URL))
+				.toList();
+	}
+}
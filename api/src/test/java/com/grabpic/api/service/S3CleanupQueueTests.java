@@ -0,0 +1,97 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.DependencyGuards;
+import com.grabpic.api.repository.PhotoBulkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class S3CleanupQueueTests {
+
+	private static final String ALBUM = "albums/" + UUID.randomUUID() + "/";
+
+	private final FakeStorage storage = new FakeStorage();
+	private final FakePhotos photos = new FakePhotos();
+	private S3CleanupQueue queue;
+
+	@AfterEach
+	void stop() {
+		if (queue != null) queue.shutdown();
+	}
+
+	@Test
+	void retriedSaveKeepsObjectsThatAreAlreadyRegistered() throws InterruptedException {
+		queue = new S3CleanupQueue(storage, photos, 10, Duration.ZERO);
+		String registered = ALBUM + UUID.randomUUID() + ".jpg";
+		String superseded = ALBUM + UUID.randomUUID() + ".jpg";
+		photos.registered.add(registered);
+
+		queue.deleteLater(List.of(registered, superseded));
+
+		await(() -> !storage.deleted.isEmpty());
+		assertThat(storage.deleted).containsExactly(superseded);
+	}
+
+	@Test
+	void objectRegisteredDuringTheRecheckDelayIsKept() throws InterruptedException {
+		queue = new S3CleanupQueue(storage, photos, 10, Duration.ofMillis(200));
+		String reused = ALBUM + UUID.randomUUID() + ".jpg";
+		String orphan = ALBUM + UUID.randomUUID() + ".jpg";
+
+		queue.deleteLater(List.of(reused, orphan));
+		photos.registered.add(reused);
+
+		await(() -> !storage.deleted.isEmpty());
+		assertThat(storage.deleted).containsExactly(orphan);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+
+	private static class FakeStorage extends S3StorageService {
+
+		private final List<String> deleted = new CopyOnWriteArrayList<>();
+
+		FakeStorage() {
+			super("us-east-1", "grabpic-test", "http://localhost:3000", "", "", "",
+					1, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1),
+					new DependencyGuards(new StandardEnvironment()), new SimpleMeterRegistry());
+		}
+
+		@Override
+		public void deleteObjects(List<String> s3Keys) {
+			deleted.addAll(s3Keys);
+		}
+	}
+
+	private static class FakePhotos extends PhotoBulkRepository {
+
+		private final Set<String> registered = ConcurrentHashMap.newKeySet();
+
+		FakePhotos() {
+			super(null);
+		}
+
+		@Override
+		public List<String> unreferenced(Collection<String> storageUrls) {
+			return storageUrls.stream().filter(key -> !registered.contains(key)).toList();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.grabpic.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionTokenServiceTests {
+
+	private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+	private final SessionTokenService tokens = new SessionTokenService(SECRET, Duration.ofMinutes(15), false);
+
+	@Test
+	void tokenIsValidForItsScopeAndBinding() {
+		String token = tokens.mint("upload", "user-1");
+
+		assertThat(tokens.verify(token, "upload", "user-1")).isTrue();
+		assertThat(new SessionTokenService(SECRET, Duration.ofMinutes(15), true)
+				.verify(token, "upload", "user-1")).isTrue();
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		SessionTokenService expired = new SessionTokenService(SECRET, Duration.ofSeconds(-1), false);
+
+		assertThat(expired.verify(expired.mint("upload", "user-1"), "upload", "user-1")).isFalse();
+	}
+
+	@Test
+	void tokenForAnotherScopeOrUserIsRejected() {
+		String token = tokens.mint("upload", "user-1");
+
+		assertThat(tokens.verify(token, "download", "user-1")).isFalse();
+		assertThat(tokens.verify(token, "upload", "user-2")).isFalse();
+	}
+
+	@Test
+	void tamperedTokenIsRejected() {
+		String token = tokens.mint("upload", "user-1");
+		String[] parts = token.split("\\.");
+
+		String extended = parts[0] + "." + parts[1] + "." + (Long.parseLong(parts[2]) + 3600) + "." + parts[3];
+		String rescoped = parts[0] + ".admin." + parts[2] + "." + parts[3];
+		String forged = new SessionTokenService("fedcba9876543210fedcba9876543210", Duration.ofMinutes(15), false)
+				.mint("upload", "user-1");
+
+		assertThat(tokens.verify(extended, "upload", "user-1")).isFalse();
+		assertThat(tokens.verify(rescoped, "admin", "user-1")).isFalse();
+		assertThat(tokens.verify(forged, "upload", "user-1")).isFalse();
+	}
+
+	@Test
+	void malformedTokenIsRejected() {
+		assertThat(tokens.verify(null, "upload", "user-1")).isFalse();
+		assertThat(tokens.verify("", "upload", "user-1")).isFalse();
+		assertThat(tokens.verify("v1.upload.123", "upload", "user-1")).isFalse();
+		assertThat(tokens.verify("v1.upload.soon.c2ln", "upload", "user-1")).isFalse();
+		assertThat(tokens.verify("v1.upload.99999999999.not base64!", "upload", "user-1")).isFalse();
+		assertThat(tokens.verify("v2.upload.99999999999.c2ln", "upload", "user-1")).isFalse();
+		assertThat(tokens.verify(tokens.mint("upload", "user-1"), "upload", null)).isFalse();
+	}
+
+	@Test
+	void missingOrShortSecretFailsStartupWhenRequired() {
+		assertThatThrownBy(() -> new SessionTokenService("", Duration.ofMinutes(15), true))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> new SessionTokenService("short", Duration.ofMinutes(15), false))
+				.isInstanceOf(IllegalStateException.class);
+
+		SessionTokenService random = new SessionTokenService("", Duration.ofMinutes(15), false);
+		assertThat(tokens.verify(random.mint("upload", "user-1"), "upload", "user-1")).isFalse();
+	}
+}
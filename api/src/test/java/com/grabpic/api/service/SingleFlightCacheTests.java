@@ -0,0 +1,111 @@
+package com.grabpic.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightCacheTests {
+
+	private final UUID album = UUID.randomUUID();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void concurrentCallersShareOneLoad() throws Exception {
+		SingleFlightCache cache = new SingleFlightCache(Duration.ZERO, 100);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get(album, "details", () -> {
+			loading.countDown();
+			await(release);
+			return "v" + loads.incrementAndGet();
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(
+				() -> cache.get(album, "details", () -> "v" + loads.incrementAndGet()));
+		Thread.sleep(50);
+		release.countDown();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+		assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void waitersSeeTheLoadersFailure() throws Exception {
+		SingleFlightCache cache = new SingleFlightCache(Duration.ofSeconds(10), 100);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get(album, "details", () -> {
+			loading.countDown();
+			await(release);
+			throw new IllegalStateException("database is down");
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(
+				() -> cache.get(album, "details", () -> "v" + loads.incrementAndGet()));
+		Thread.sleep(50);
+		release.countDown();
+
+		assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("database is down");
+		assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("database is down");
+		assertThat(cache.get(album, "details", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+	}
+
+	@Test
+	void resultIsReusedOnlyWithinTheWindow() throws InterruptedException {
+		SingleFlightCache cache = new SingleFlightCache(Duration.ofMillis(100), 100);
+
+		assertThat(cache.get(album, "details", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+		assertThat(cache.get(album, "details", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+		assertThat(cache.get(album, "search", () -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+
+		Thread.sleep(150);
+		assertThat(cache.get(album, "details", () -> "v" + loads.incrementAndGet())).isEqualTo("v3");
+	}
+
+	@Test
+	void loadThatOverlapsAnEvictionIsNotCached() {
+		SingleFlightCache cache = new SingleFlightCache(Duration.ofSeconds(10), 100);
+
+		String stale = cache.get(album, "details", () -> {
+			loads.incrementAndGet();
+			cache.evictAlbum(album);
+			assertThat(cache.get(album, "details", () -> "fresh")).isEqualTo("fresh");
+			return "stale";
+		});
+
+		assertThat(stale).isEqualTo("stale");
+		assertThat(cache.get(album, "details", () -> "v" + loads.incrementAndGet())).isEqualTo("fresh");
+	}
+
+	@Test
+	void evictionDropsOnlyThatAlbum() {
+		SingleFlightCache cache = new SingleFlightCache(Duration.ofSeconds(10), 100);
+		UUID other = UUID.randomUUID();
+		cache.get(album, "details", () -> "v" + loads.incrementAndGet());
+		cache.get(other, "details", () -> "v" + loads.incrementAndGet());
+
+		cache.evictAlbum(album);
+
+		assertThat(cache.get(album, "details", () -> "v" + loads.incrementAndGet())).isEqualTo("v3");
+		assertThat(cache.get(other, "details", () -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
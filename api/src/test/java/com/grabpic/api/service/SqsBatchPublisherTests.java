@@ -0,0 +1,182 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.LazyClient;
+import com.grabpic.api.repository.SqsRedriveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqsBatchPublisherTests {
+
+	private final FakeSqs sqs = new FakeSqs();
+	private final InMemoryRedrive redrive = new InMemoryRedrive();
+	private SqsBatchPublisher publisher;
+
+	@AfterEach
+	void stop() {
+		if (publisher != null) publisher.shutdown();
+	}
+
+	@Test
+	void sendsBufferedMessagesInBatchesOfTen() throws InterruptedException {
+		publisher = publisher(100, 5);
+
+		for (int i = 0; i < 25; i++) publisher.publish("m" + i);
+
+		await(() -> sqs.sent.size() == 25);
+		assertThat(sqs.batches).extracting(List::size).containsExactly(10, 10, 5);
+	}
+
+	@Test
+	void retriesOnlyTheEntriesThatFailedOnTheServerSide() throws InterruptedException {
+		publisher = publisher(100, 5);
+		sqs.failOnce("m1", false);
+		sqs.failOnce("m2", true);
+
+		for (int i = 0; i < 3; i++) publisher.publish("m" + i);
+
+		await(() -> sqs.sent.size() == 2);
+		assertThat(sqs.sent).containsExactly("m0", "m1");
+		assertThat(sqs.batches).extracting(List::size).containsExactly(3, 1);
+		assertThat(redrive.saved).isEmpty();
+	}
+
+	@Test
+	void messagesThatRunOutOfRetriesAreSavedAndRedriven() throws InterruptedException {
+		publisher = publisher(100, 2);
+		sqs.unavailable = true;
+
+		publisher.publish("m0");
+
+		await(() -> !redrive.saved.isEmpty());
+		assertThat(sqs.batches).hasSize(2);
+		assertThat(redrive.saved.values()).containsExactly("m0");
+
+		sqs.unavailable = false;
+		publisher.redrive();
+
+		await(() -> redrive.saved.isEmpty());
+		assertThat(sqs.sent).containsExactly("m0");
+	}
+
+	@Test
+	void publishSavesMessagesWhenTheBufferStaysFull() throws InterruptedException {
+		publisher = publisher(1, 5);
+		sqs.hang = true;
+
+		for (int i = 0; i < 30 && redrive.saved.isEmpty(); i++) publisher.publish("m" + i);
+
+		assertThat(redrive.saved).isNotEmpty();
+		sqs.hang = false;
+		sqs.hanging.forEach(response -> response.completeExceptionally(new IllegalStateException("timed out")));
+	}
+
+	private SqsBatchPublisher publisher(int bufferCapacity, int maxAttempts) {
+		return new SqsBatchPublisher(new LazyClient<>(() -> sqs), "https://sqs.test/queue", Duration.ofMillis(50), 1,
+				bufferCapacity, Duration.ofMillis(10), maxAttempts, Duration.ofMillis(1), Duration.ofHours(1),
+				Duration.ofMinutes(5), redrive, new SimpleMeterRegistry());
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+
+	private static class FakeSqs implements SqsAsyncClient {
+
+		final List<List<String>> batches = new CopyOnWriteArrayList<>();
+		final List<String> sent = new CopyOnWriteArrayList<>();
+		final Map<String, Boolean> failures = new TreeMap<>();
+		final List<CompletableFuture<SendMessageBatchResponse>> hanging = new CopyOnWriteArrayList<>();
+		volatile boolean unavailable;
+		volatile boolean hang;
+
+		synchronized void failOnce(String body, boolean senderFault) {
+			failures.put(body, senderFault);
+		}
+
+		@Override
+		public synchronized CompletableFuture<SendMessageBatchResponse> sendMessageBatch(SendMessageBatchRequest request) {
+			batches.add(request.entries().stream().map(SendMessageBatchRequestEntry::messageBody).toList());
+			if (hang) {
+				CompletableFuture<SendMessageBatchResponse> response = new CompletableFuture<>();
+				hanging.add(response);
+				return response;
+			}
+			if (unavailable) return CompletableFuture.failedFuture(new IllegalStateException("SQS is unavailable"));
+
+			List<SendMessageBatchResultEntry> successful = new ArrayList<>();
+			List<BatchResultErrorEntry> failed = new ArrayList<>();
+			for (SendMessageBatchRequestEntry entry : request.entries()) {
+				Boolean senderFault = failures.remove(entry.messageBody());
+				if (senderFault != null) {
+					failed.add(BatchResultErrorEntry.builder().id(entry.id()).code("Failed")
+							.senderFault(senderFault).build());
+				} else {
+					sent.add(entry.messageBody());
+					successful.add(SendMessageBatchResultEntry.builder().id(entry.id()).build());
+				}
+			}
+			return CompletableFuture.completedFuture(
+					SendMessageBatchResponse.builder().successful(successful).failed(failed).build());
+		}
+
+		@Override
+		public String serviceName() {
+			return "sqs";
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static class InMemoryRedrive extends SqsRedriveRepository {
+
+		final Map<Long, String> saved = new ConcurrentSkipListMap<>();
+		private long nextId;
+
+		InMemoryRedrive() {
+			super(null);
+		}
+
+		@Override
+		public synchronized void save(List<String> bodies) {
+			bodies.forEach(body -> saved.put(++nextId, body));
+		}
+
+		@Override
+		public synchronized List<RedriveMessage> claim(int limit, Duration lease) {
+			return saved.entrySet().stream().limit(limit)
+					.map(entry -> new RedriveMessage(entry.getKey(), entry.getValue()))
+					.toList();
+		}
+
+		@Override
+		public synchronized void delete(Collection<Long> ids) {
+			ids.forEach(saved::remove);
+		}
+	}
+}
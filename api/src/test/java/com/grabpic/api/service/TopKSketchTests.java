@@ -0,0 +1,42 @@
+package com.grabpic.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKSketchTests {
+
+	private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+	@Test
+	void ranksHotKeysAboveLongTail() {
+		TopKSketch sketch = new TopKSketch(1024, 3, MINUTE, 0);
+		for (int i = 0; i < 10_000; i++) {
+			sketch.add("tail-" + i, 1);
+			if (i % 10 == 0) sketch.add("hot-a", 1);
+			if (i % 20 == 0) sketch.add("hot-b", 1);
+			if (i % 40 == 0) sketch.add("hot-c", 1);
+		}
+
+		List<HeavyHitters.HeavyHitter> top = sketch.top();
+
+		assertThat(top).extracting(HeavyHitters.HeavyHitter::key).containsExactly("hot-a", "hot-b", "hot-c");
+		assertThat(top.get(0).count()).isGreaterThanOrEqualTo(1_000);
+	}
+
+	@Test
+	void decayLetsNewTrafficOvertakeOldTraffic() {
+		TopKSketch sketch = new TopKSketch(1024, 1, MINUTE, 0);
+		for (int i = 0; i < 1_000; i++) sketch.add("yesterday", 1);
+
+		for (int window = 1; window <= 4; window++) {
+			for (int i = 0; i < 200; i++) sketch.add("today", window * MINUTE + 1);
+		}
+
+		assertThat(sketch.top()).extracting(HeavyHitters.HeavyHitter::key).containsExactly("today");
+		assertThat(sketch.estimate("yesterday")).isLessThan(100);
+	}
+}
@@ -0,0 +1,172 @@
+package com.grabpic.api.service;
+
+import com.grabpic.api.config.DependencyGuards;
+import com.grabpic.api.model.AccessMode;
+import com.grabpic.api.repository.PhotoBulkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadEventConsumerTests {
+
+	private static final UUID ALBUM_ID = UUID.fromString("0e1d2c3b-4a59-6877-8695-a4b3c2d1e0f9");
+
+	private final FakeEventQueue queue = new FakeEventQueue();
+	private final FakeStorage storage = new FakeStorage();
+	private final RecordingRegistration registration = new RecordingRegistration();
+	private final UploadEventConsumer consumer = new UploadEventConsumer(queue, storage, registration, false, 10);
+
+	@Test
+	void registersUploadsFromMetadataGroupedByAlbum() {
+		String publicKey = storage.upload(ALBUM_ID, 2048, "PUBLIC");
+		String protectedKey = storage.upload(ALBUM_ID, 4096, "PROTECTED");
+		queue.send(publicKey, protectedKey);
+
+		assertThat(consumer.pollOnce()).isEqualTo(2);
+
+		assertThat(registration.calls).containsExactly(Map.entry(ALBUM_ID, List.of(
+				new PhotoBulkRepository.NewPhoto(publicKey, AccessMode.PUBLIC, storage.checksumOf(publicKey)),
+				new PhotoBulkRepository.NewPhoto(protectedKey, AccessMode.PROTECTED, storage.checksumOf(protectedKey)))));
+		assertThat(queue.inFlight).isEmpty();
+	}
+
+	@Test
+	void leavesUploadsWithoutMetadataToTheClient() {
+		String legacyKey = storage.upload(ALBUM_ID, 2048, null);
+		queue.send(legacyKey);
+
+		consumer.pollOnce();
+
+		assertThat(registration.calls).isEmpty();
+		assertThat(storage.deleted).isEmpty();
+		assertThat(queue.inFlight).isEmpty();
+	}
+
+	@Test
+	void deletesUploadsWhoseMetadataDoesNotMatchTheKey() {
+		String oversized = storage.upload(ALBUM_ID, 11 * 1024 * 1024, "PUBLIC");
+		String wrongAlbum = "albums/" + ALBUM_ID + "/" + UUID.randomUUID() + ".jpg";
+		storage.objects.put(wrongAlbum, new S3StorageService.UploadedObject(2048, Map.of(
+				S3StorageService.METADATA_ALBUM_ID, UUID.randomUUID().toString(),
+				S3StorageService.METADATA_ACCESS_MODE, "PUBLIC"), null));
+		queue.send(oversized, wrongAlbum, "albums/" + ALBUM_ID + "/manifests/1.json");
+
+		consumer.pollOnce();
+
+		assertThat(registration.calls).isEmpty();
+		assertThat(storage.deleted).containsExactlyInAnyOrder(oversized, wrongAlbum);
+	}
+
+	@Test
+	void leavesTheBatchUnacknowledgedWhenRegistrationFails() {
+		queue.send(storage.upload(ALBUM_ID, 2048, "PUBLIC"));
+		registration.failure = new IllegalStateException("database unavailable");
+
+		try {
+			consumer.pollOnce();
+		} catch (IllegalStateException expected) {
+		}
+
+		assertThat(queue.inFlight).hasSize(1);
+	}
+
+	@Test
+	void parsesObjectCreatedKeysFromS3Notifications() {
+		String body = """
+				{"Records":[
+				  {"eventName":"ObjectCreated:Put","s3":{"object":{"key":"albums/a/b+c%2B.jpg","size":10}}},
+				  {"eventName":"ObjectRemoved:Delete","s3":{"object":{"key":"albums/a/gone.jpg"}}}
+				]}
+				""";
+
+		assertThat(SqsUploadEventSource.parseCreatedKeys(body)).containsExactly("albums/a/b c+.jpg");
+		assertThat(SqsUploadEventSource.parseCreatedKeys("{\"Event\":\"s3:TestEvent\"}")).isEmpty();
+	}
+
+	private static class FakeEventQueue implements UploadEventSource {
+
+		private final Queue<UploadEvent> pending = new ArrayDeque<>();
+		private final List<UploadEvent> inFlight = new ArrayList<>();
+
+		void send(String... keys) {
+			pending.add(new UploadEvent(List.of(keys), UUID.randomUUID().toString()));
+		}
+
+		@Override
+		public List<UploadEvent> receive(int maxEvents) {
+			List<UploadEvent> events = new ArrayList<>();
+			while (events.size() < maxEvents && !pending.isEmpty()) events.add(pending.poll());
+			inFlight.addAll(events);
+			return events;
+		}
+
+		@Override
+		public void acknowledge(List<UploadEvent> events) {
+			inFlight.removeAll(events);
+		}
+	}
+
+	private static class FakeStorage extends S3StorageService {
+
+		private final Map<String, UploadedObject> objects = new HashMap<>();
+		private final List<String> deleted = new ArrayList<>();
+
+		FakeStorage() {
+			super("us-east-1", "grabpic-test", "http://localhost:3000", "", "", "",
+					1, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1),
+					new DependencyGuards(new StandardEnvironment()), new SimpleMeterRegistry());
+		}
+
+		String upload(UUID albumId, long size, String accessMode) {
+			String key = "albums/" + albumId + "/" + UUID.randomUUID() + ".jpg";
+			Map<String, String> metadata = accessMode == null ? Map.of() : Map.of(
+					METADATA_ALBUM_ID, albumId.toString(),
+					METADATA_ACCESS_MODE, accessMode);
+			objects.put(key, new UploadedObject(size, metadata, UUID.randomUUID().toString()));
+			return key;
+		}
+
+		String checksumOf(String key) {
+			return objects.get(key).checksumSha256();
+		}
+
+		@Override
+		public Optional<UploadedObject> describeUpload(String s3Key) {
+			return Optional.ofNullable(objects.get(s3Key));
+		}
+
+		@Override
+		public void deleteObjects(List<String> s3Keys) {
+			deleted.addAll(s3Keys);
+		}
+	}
+
+	private static class RecordingRegistration extends PhotoRegistrationService {
+
+		private final List<Map.Entry<UUID, List<PhotoBulkRepository.NewPhoto>>> calls = new ArrayList<>();
+		private RuntimeException failure;
+
+		RecordingRegistration() {
+			super(null, null, null, null, null);
+		}
+
+		@Override
+		public int register(UUID albumId, List<PhotoBulkRepository.NewPhoto> photos) {
+			if (failure != null) throw failure;
+			calls.add(Map.entry(albumId, List.copyOf(photos)));
+			return photos.size();
+		}
+	}
+}
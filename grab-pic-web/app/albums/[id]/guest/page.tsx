@@ -22,6 +22,7 @@ import {
 } from "lucide-react";
 import JSZip from "jszip";
 import { fetchImageAsBlob, downloadImage } from "@/lib/download";
+import { retryWhileRestoring } from "@/lib/restoring";
 
 interface Photo {
 	id: string;
@@ -84,7 +85,9 @@ export default function GuestWelcomePage() {
 	useEffect(() => {
 		const fetchAlbumDetails = async () => {
 			try {
-				const res = await fetch(`/api/albums/${albumId}/guest/details`);
+				const res = await retryWhileRestoring(() =>
+					fetch(`/api/albums/${albumId}/guest/details`),
+				);
 				if (!res.ok) throw new Error("Album not found or private");
 
 				const data = await res.json();
@@ -295,11 +298,13 @@ export default function GuestWelcomePage() {
 				return;
 			}
 
-			const sbRes = await fetch(`/api/albums/${albumId}/guest/search-results`, {
-				method: "POST",
-				headers: { "Content-Type": "application/json" },
-				body: JSON.stringify(photoIds),
-			});
+			const sbRes = await retryWhileRestoring(() =>
+				fetch(`/api/albums/${albumId}/guest/search-results`, {
+					method: "POST",
+					headers: { "Content-Type": "application/json" },
+					body: JSON.stringify(photoIds),
+				}),
+			);
 
 			if (!sbRes.ok) {
 				const msg = await readErrorMessage(
@@ -22,6 +22,15 @@ import {
 import Image from "next/image";
 import { apiFetch } from "@/lib/api";
 
+async function sha256Base64(file: File): Promise<string> {
+	const digest = new Uint8Array(
+		await crypto.subtle.digest("SHA-256", await file.arrayBuffer()),
+	);
+	let binary = "";
+	for (const byte of digest) binary += String.fromCharCode(byte);
+	return btoa(binary);
+}
+
 interface UploadPhoto {
 	id: string;
 	file: File;
@@ -43,6 +52,7 @@ export default function AlbumUploadPage() {
 	const [fullScreenImage, setFullScreenImage] = useState<string | null>(null);
 	const [turnstileToken, setTurnstileToken] = useState<string | null>(null);
 	const [turnstileWidgetKey, setTurnstileWidgetKey] = useState(0);
+	const [sessionToken, setSessionToken] = useState<string | null>(null);
 	const fileInputRef = useRef<HTMLInputElement>(null);
 
 	if (isAuthLoading || !isAuthenticated) {
@@ -104,7 +114,7 @@ export default function AlbumUploadPage() {
 			(p) => p.status === "idle" || p.status === "error",
 		);
 		if (pendingPhotos.length === 0) return;
-		if (isTurnstileEnabled && !turnstileToken) {
+		if (isTurnstileEnabled && !turnstileToken && !sessionToken) {
 			alert("Please complete the bot check before uploading.");
 			return;
 		}
@@ -115,9 +125,16 @@ export default function AlbumUploadPage() {
 
 		try {
 			const fileSizes = pendingPhotos.map((p) => p.file.size);
+			const publicFlags = pendingPhotos.map((p) => p.isPublic);
+			const checksums = await Promise.all(
+				pendingPhotos.map((p) => sha256Base64(p.file)),
+			);
 			const headers: Record<string, string> = {
 				"Content-Type": "application/json",
 			};
+			if (sessionToken) {
+				headers["X-Session-Token"] = sessionToken;
+			}
 			if (turnstileToken) {
 				headers["X-Turnstile-Token"] = turnstileToken;
 			}
@@ -125,10 +142,17 @@ export default function AlbumUploadPage() {
 			const response = await apiFetch(`/api/albums/${albumId}/upload-urls`, {
 				method: "POST",
 				headers,
-				body: JSON.stringify({ fileSizes }),
+				body: JSON.stringify({ fileSizes, publicFlags, checksums }),
 			});
 			turnstileWasUsed = isTurnstileEnabled && Boolean(turnstileToken);
 
+			const issuedSessionToken = response.headers.get("X-Session-Token");
+			if (issuedSessionToken) {
+				setSessionToken(issuedSessionToken);
+			} else if (response.status === 403) {
+				setSessionToken(null);
+			}
+
 			if (!response.ok) {
 				const errorMsg = await response.text();
 				if (response.status === 405) {
@@ -141,7 +165,13 @@ export default function AlbumUploadPage() {
 				);
 			}
 
-			const presignedUrls: string[] = await response.json();
+			const {
+				uploads,
+				registeredOnUpload,
+			}: {
+				uploads: { url: string; headers: Record<string, string> }[];
+				registeredOnUpload: boolean;
+			} = await response.json();
 			const uploadPromises = pendingPhotos.map(async (photo, index) => {
 				setPhotos((prev) =>
 					prev.map((p) =>
@@ -150,7 +180,7 @@ export default function AlbumUploadPage() {
 				);
 
 				try {
-					const uploadUrl = presignedUrls[index];
+					const { url: uploadUrl, headers: signedHeaders } = uploads[index];
 
 					const uploadRes = await fetch(uploadUrl, {
 						method: "PUT",
@@ -158,6 +188,7 @@ export default function AlbumUploadPage() {
 						headers: {
 							"Content-Type": "image/jpeg",
 							"Content-Length": String(photo.file.size),
+							...signedHeaders,
 						},
 					});
 
@@ -188,6 +219,13 @@ export default function AlbumUploadPage() {
 			const results = await Promise.all(uploadPromises);
 			const successfulPhotos = results.filter((p) => p !== null);
 
+			if (successfulPhotos.length > 0 && registeredOnUpload) {
+				setPhotos([]);
+				didRedirectToAlbum = true;
+				router.push(`/dashboard/albums/${albumId}/view`);
+				return;
+			}
+
 			if (successfulPhotos.length > 0) {
 				const payload = {
 					photos: successfulPhotos.map((p) => ({
@@ -320,7 +358,7 @@ export default function AlbumUploadPage() {
 					</div>
 
 					<div className="w-full sm:w-auto flex flex-col sm:flex-row items-center gap-3">
-						{isTurnstileEnabled && (
+						{isTurnstileEnabled && !sessionToken && (
 							<div className="w-full sm:w-auto flex justify-center">
 								<Turnstile
 									key={turnstileWidgetKey}
@@ -337,7 +375,7 @@ export default function AlbumUploadPage() {
 							disabled={
 								photos.length === 0 ||
 								isUploading ||
-								(isTurnstileEnabled && !turnstileToken)
+								(isTurnstileEnabled && !turnstileToken && !sessionToken)
 							}
 							className="w-full sm:w-auto bg-violet-600 hover:bg-violet-700 text-white font-bold px-8 shadow-md transition-all"
 						>
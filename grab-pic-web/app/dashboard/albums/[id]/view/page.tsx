@@ -24,6 +24,7 @@ import {
 } from "lucide-react";
 import { QRCodeSVG } from "qrcode.react";
 import { apiFetch } from "@/lib/api";
+import { retryWhileRestoring } from "@/lib/restoring";
 import { supabase } from "@/lib/supabase";
 import { useRequireAuth } from "@/lib/useRequireAuth";
 import JSZip from "jszip";
@@ -35,7 +36,7 @@ interface Photo {
 	isPublic: boolean;
 	processed: boolean;
 	faceCount: number;
-	faceBoxes: string[];
+	faceBoxes: number[];
 }
 
 export default function AlbumViewPage() {
@@ -61,7 +62,9 @@ export default function AlbumViewPage() {
 	useEffect(() => {
 		const fetchPhotos = async () => {
 			try {
-				const response = await apiFetch(`/api/albums/${albumId}/photos`);
+				const response = await retryWhileRestoring(() =>
+					apiFetch(`/api/albums/${albumId}/photos`),
+				);
 				if (!response.ok) throw new Error("Failed to fetch photos");
 				const data = await response.json();
 				setPhotos(data);
@@ -137,11 +140,11 @@ export default function AlbumViewPage() {
 		if (!confirmDelete) return;
 
 		try {
-			for (const id of selectedPhotoIds) {
-				await apiFetch(`/api/albums/${albumId}/photos/${id}`, {
-					method: "DELETE",
-				});
-			}
+			const res = await apiFetch(`/api/albums/${albumId}/photos/bulk-delete`, {
+				method: "POST",
+				body: JSON.stringify({ photoIds: selectedPhotoIds }),
+			});
+			if (!res.ok) throw new Error(`Bulk delete failed with status ${res.status}`);
 			setPhotos((prev) => prev.filter((p) => !selectedPhotoIds.includes(p.id)));
 			setSelectedPhotoIds([]);
 			setIsSelectionMode(false);
@@ -207,12 +210,11 @@ export default function AlbumViewPage() {
 		if (!confirmToggle) return;
 
 		try {
-			for (const id of selectedPhotoIds) {
-				await apiFetch(
-					`/api/albums/${albumId}/photos/${id}/privacy?makePublic=${makePublic}`,
-					{ method: "PUT" },
-				);
-			}
+			const res = await apiFetch(
+				`/api/albums/${albumId}/photos/privacy?makePublic=${makePublic}`,
+				{ method: "PUT", body: JSON.stringify({ photoIds: selectedPhotoIds }) },
+			);
+			if (!res.ok) throw new Error(`Bulk privacy update failed with status ${res.status}`);
 			setPhotos((prev) =>
 				prev.map((p) =>
 					selectedPhotoIds.includes(p.id) ? { ...p, isPublic: makePublic } : p,
@@ -697,25 +699,29 @@ export default function AlbumViewPage() {
 								/>
 
 								{showBoxes &&
-									selectedPhoto.faceBoxes?.map((boxStr, idx) => {
-										const box = JSON.parse(boxStr);
-										return (
-											<div
-												key={idx}
-												className="absolute border-2 border-violet-400 bg-violet-500/10 rounded-lg shadow-[0_0_15px_rgba(139,92,246,0.4)] transition-all hover:bg-violet-500/30"
-												style={{
-													left: `${(box.x / imageDims.width) * 100}%`,
-													top: `${(box.y / imageDims.height) * 100}%`,
-													width: `${(box.w / imageDims.width) * 100}%`,
-													height: `${(box.h / imageDims.height) * 100}%`,
-												}}
-											>
-												<span className="absolute -top-6 left-0 bg-violet-600 text-white text-[9px] px-1.5 py-0.5 rounded font-bold uppercase whitespace-nowrap">
-													ID: {idx + 1}
-												</span>
-											</div>
-										);
-									})}
+									Array.from(
+										{ length: Math.floor((selectedPhoto.faceBoxes?.length ?? 0) / 4) },
+										(_, idx) => {
+											const [x, y, w, h] = selectedPhoto.faceBoxes.slice(idx * 4, idx * 4 + 4);
+											const box = { x, y, w, h };
+											return (
+												<div
+													key={idx}
+													className="absolute border-2 border-violet-400 bg-violet-500/10 rounded-lg shadow-[0_0_15px_rgba(139,92,246,0.4)] transition-all hover:bg-violet-500/30"
+													style={{
+														left: `${(box.x / imageDims.width) * 100}%`,
+														top: `${(box.y / imageDims.height) * 100}%`,
+														width: `${(box.w / imageDims.width) * 100}%`,
+														height: `${(box.h / imageDims.height) * 100}%`,
+													}}
+												>
+													<span className="absolute -top-6 left-0 bg-violet-600 text-white text-[9px] px-1.5 py-0.5 rounded font-bold uppercase whitespace-nowrap">
+														ID: {idx + 1}
+													</span>
+												</div>
+											);
+										},
+									)}
 							</div>
 						</div>
 					</div>
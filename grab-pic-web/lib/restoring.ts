@@ -0,0 +1,13 @@
+// Archived albums answer 409 with Retry-After while they are restored in the background.
+export async function retryWhileRestoring(
+	request: () => Promise<Response>,
+	attempts = 10,
+): Promise<Response> {
+	let response = await request();
+	for (let i = 1; i < attempts && response.status === 409; i++) {
+		const seconds = Number(response.headers.get("Retry-After")) || 2;
+		await new Promise((resolve) => setTimeout(resolve, seconds * 1000));
+		response = await request();
+	}
+	return response;
+}